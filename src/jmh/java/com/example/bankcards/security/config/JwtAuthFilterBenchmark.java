@@ -0,0 +1,70 @@
+package com.example.bankcards.security.config;
+
+import com.example.bankcards.entity.User;
+import com.example.bankcards.security.service.JwtService;
+import com.example.bankcards.security.service.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    static final String SECRET_KEY = "S2pjZHJpdmFPUkVlYWtqR21iT3prSmwycmdkdjh3ZE8=";
+
+    /**
+     * 0 disables the claims cache, so every request parses and verifies the token again.
+     */
+    @Param({"0", "100000"})
+    public long cacheMaximumSize;
+
+    @Param({"DATABASE", "CLAIMS"})
+    public JwtAuthFilter.PrincipalSource principalSource;
+
+    private JwtAuthFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        var jwtService = new JwtService(SECRET_KEY, 3_600_000, 3_600_000, cacheMaximumSize, new SimpleMeterRegistry());
+        var user = User.builder().id(1L).login("user").role(User.Role.USER).build();
+        filter = new JwtAuthFilter(jwtService, login -> user, new TokenRevocationService(null, 1_000, 0.01),
+                principalSource, Duration.ZERO, 0, new SimpleMeterRegistry());
+        authorization = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Object authenticate_request() throws Exception {
+        var request = new MockHttpServletRequest("GET", "/transaction_history");
+        request.setServletPath("/transaction_history");
+        request.addHeader("Authorization", authorization);
+        var response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
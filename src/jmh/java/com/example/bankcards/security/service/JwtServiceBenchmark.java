@@ -0,0 +1,76 @@
+package com.example.bankcards.security.service;
+
+import com.example.bankcards.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    static final String SECRET_KEY = "S2pjZHJpdmFPUkVlYWtqR21iT3prSmwycmdkdjh3ZE8=";
+
+    /**
+     * 0 disables the claims cache, so every validation parses and verifies the signature again.
+     */
+    @Param({"0", "100000"})
+    public long cacheMaximumSize;
+
+    private JwtService service;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        service = new JwtService(SECRET_KEY, 3_600_000, 3_600_000, cacheMaximumSize, new SimpleMeterRegistry());
+        user = User.builder().id(1L).login("user").role(User.Role.USER).build();
+        token = service.generateToken(user);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String generate_1_thread() {
+        return service.generateToken(user);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generate_4_threads() {
+        return service.generateToken(user);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean validate_1_thread() {
+        return service.isTokenValid(service.extractAllClaims(token), user);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean validate_4_threads() {
+        return service.isTokenValid(service.extractAllClaims(token), user);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean validate_16_threads() {
+        return service.isTokenValid(service.extractAllClaims(token), user);
+    }
+}
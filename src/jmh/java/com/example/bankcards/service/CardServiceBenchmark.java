@@ -0,0 +1,106 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardBalanceRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardRepository.CardView;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.EncryptionUtilService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Maps the card listing of one user to DTOs. The rows are the same interface-projection proxies that
+ * Spring Data returns, so their getter cost is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardServiceBenchmark {
+
+    @Param({"10", "100"})
+    public int cards;
+
+    private CardService service;
+
+    @Setup
+    public void setUp() {
+        var projectionFactory = new SpelAwareProxyProjectionFactory();
+        List<CardView> views = new ArrayList<>();
+        Map<Long, Long> balances = new HashMap<>();
+        for (long id = 1; id <= cards; id++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", id);
+            row.put("numberLast4", String.format("%04d", id));
+            row.put("ownerId", 1L);
+            row.put("validityPeriod", LocalDate.now().plusYears(1));
+            row.put("status", Card.Status.ACTIVE);
+            row.put("isAtm", false);
+            views.add(projectionFactory.createProjection(CardView.class, row));
+            balances.put(id, id * 100);
+        }
+
+        var cardRepository = mock(CardRepository.class);
+        var userRepository = mock(UserRepository.class);
+        var transactionService = mock(TransactionService.class);
+        when(cardRepository.getAllByUserId(1L)).thenReturn(views);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(User.builder().id(1L).build()));
+        when(transactionService.getBalancesFromCache(anyCollection())).thenReturn(balances);
+        service = new CardService(cardRepository, mock(CardBalanceRepository.class), userRepository,
+                mock(EncryptionUtilService.class), transactionService);
+    }
+
+    /**
+     * Stub-only mocks do not record invocations, which would otherwise grow and serialize under load.
+     */
+    private static <T> T mock(Class<T> type) {
+        return Mockito.mock(type, withSettings().stubOnly());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<CardDto> user_cards_1_thread() {
+        return service.getCardsByUserId(1L);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<CardDto> user_cards_4_threads() {
+        return service.getCardsByUserId(1L);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public List<CardDto> user_cards_16_threads() {
+        return service.getCardsByUserId(1L);
+    }
+}
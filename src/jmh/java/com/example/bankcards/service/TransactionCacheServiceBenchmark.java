@@ -0,0 +1,82 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardBalanceRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Cache hits only: all cards are loaded in setup. With one card every thread reads the same entry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionCacheServiceBenchmark {
+
+    @Param({"1", "10000"})
+    public int cards;
+
+    private TransactionCacheService service;
+
+    @Setup
+    public void setUp() {
+        service = new TransactionCacheService(
+                mock(TransactionRepository.class, withSettings().stubOnly()),
+                mock(CardBalanceRepository.class, withSettings().stubOnly()),
+                mock(BalanceInvalidationPublisher.class, withSettings().stubOnly()),
+                new SimpleMeterRegistry(),
+                100_000,
+                Duration.ofHours(1));
+        for (long cardId = 1; cardId <= cards; cardId++) {
+            service.getBalanceFromCache(cardId);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private long next;
+
+        long next(int cards) {
+            next = next % cards + 1;
+            return next;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long balance_hit_1_thread(Cursor cursor) {
+        return service.getBalanceFromCache(cursor.next(cards));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Long balance_hit_4_threads(Cursor cursor) {
+        return service.getBalanceFromCache(cursor.next(cards));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Long balance_hit_16_threads(Cursor cursor) {
+        return service.getBalanceFromCache(cursor.next(cards));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.dto.CardDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardNumberUtilBenchmark {
+
+    static final String NUMBER = "4276123456789012";
+
+    private final CardDto card = new CardDto();
+    private String number = NUMBER;
+    private String last4 = CardNumberUtil.lastDigits(NUMBER);
+
+    @Benchmark
+    @Threads(1)
+    public String hide_1_thread() {
+        card.setNumber(number);
+        CardNumberUtil.hide(card);
+        return card.getNumber();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String hide_4_threads() {
+        card.setNumber(number);
+        CardNumberUtil.hide(card);
+        return card.getNumber();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String mask_last4_4_threads() {
+        return CardNumberUtil.mask(last4);
+    }
+}
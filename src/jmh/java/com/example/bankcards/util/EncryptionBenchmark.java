@@ -0,0 +1,95 @@
+package com.example.bankcards.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncryptionBenchmark {
+
+    static final String LEGACY_KEY = "d3JtUjlIR1kyeFluNmF6VDUyd1lDbTZPNkFxQUw3RVA=";
+    static final String AES_KEY = "fIC80OrElR22g/AVdUQ3CDG8u2RwHx8rZi/8KizxO5Y=";
+    static final String HMAC_KEY = "KA7AVYHwkR4YcIx67l94tyMP7OsqiE80WjeoejdjdaY=";
+    static final String NUMBER = "4276123456789012";
+
+    private EncryptionUtilService service;
+    private String encrypted;
+    private String legacyEncrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        service = new EncryptionUtilService(LEGACY_KEY, AES_KEY, HMAC_KEY, new SimpleMeterRegistry());
+        encrypted = service.encrypt(NUMBER);
+        legacyEncrypted = service.encryptLegacy(NUMBER);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String decrypt_1_thread() {
+        return service.decrypt(encrypted);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String decrypt_4_threads() {
+        return service.decrypt(encrypted);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String decrypt_16_threads() {
+        return service.decrypt(encrypted);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String encrypt_1_thread() {
+        return service.encrypt(NUMBER);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String encrypt_4_threads() {
+        return service.encrypt(NUMBER);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String encrypt_16_threads() {
+        return service.encrypt(NUMBER);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String legacy_decrypt_4_threads() {
+        return service.decrypt(legacyEncrypted);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String legacy_encrypt_4_threads() {
+        return service.encryptLegacy(NUMBER);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String hash_4_threads() {
+        return service.hash(NUMBER);
+    }
+}
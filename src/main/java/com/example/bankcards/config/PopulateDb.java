@@ -1,9 +1,12 @@
 package com.example.bankcards.config;
 
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardBalance;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardBalanceRepository;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumberUtil;
 import com.example.bankcards.util.EncryptionUtilService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +23,7 @@ public class PopulateDb {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final CardRepository cardRepository;
+    private final CardBalanceRepository cardBalanceRepository;
     private final EncryptionUtilService encryptionService;
 
     @PostConstruct
@@ -44,14 +48,31 @@ public class PopulateDb {
         var atm = userRepository.findByLogin(defaultAtm.getLogin()).orElse(defaultAtm);
         userRepository.saveAll(List.of(admin, user, atm));
 
+        var atmNumber = "0000111100001111";
         var defaultAtmCard = Card.builder()
-                .number(encryptionService.encrypt("0000111100001111"))
+                .number(encryptionService.encrypt(atmNumber))
+                .numberHash(encryptionService.hash(atmNumber))
+                .numberLast4(CardNumberUtil.lastDigits(atmNumber))
                 .user(atm)
                 .validityPeriod(LocalDate.now().plusYears(100))
                 .status(Card.Status.ACTIVE)
                 .isAtm(true)
                 .build();
-        var atmCard = cardRepository.findByNumber(defaultAtmCard.getNumber()).orElse(defaultAtmCard);
+        var atmCard = cardRepository.findByNumberHash(defaultAtmCard.getNumberHash())
+                .or(() -> cardRepository.findByNumber(encryptionService.encryptLegacy(atmNumber)))
+                .orElse(defaultAtmCard);
+        if (atmCard.getNumberHash() == null || atmCard.getNumberLast4() == null
+                || encryptionService.isLegacy(atmCard.getNumber())) {
+            atmCard.setNumber(defaultAtmCard.getNumber());
+            atmCard.setNumberHash(defaultAtmCard.getNumberHash());
+            atmCard.setNumberLast4(defaultAtmCard.getNumberLast4());
+        }
         cardRepository.save(atmCard);
+        if (!cardBalanceRepository.existsById(atmCard.getId())) {
+            cardBalanceRepository.save(CardBalance.builder()
+                    .cardId(atmCard.getId())
+                    .balance(0L)
+                    .build());
+        }
     }
 }
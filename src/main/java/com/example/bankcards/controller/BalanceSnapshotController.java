@@ -0,0 +1,39 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.service.BalanceSnapshotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/balance_snapshots")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Balance Snapshots", description = "Снимки балансов для сверки с историей транзакций")
+public class BalanceSnapshotController {
+
+    private final BalanceSnapshotService balanceSnapshotService;
+
+    @Operation(
+            summary = "Пересобрать снимки балансов",
+            description = "Запускает фоновую пересборку снимков балансов всех карт по полной истории транзакций, " +
+                    "параллельно по диапазонам ID карт, не дожидаясь её окончания. " +
+                    "Одновременно выполняется только одна пересборка. " +
+                    "Доступно только авторизованным администраторам.",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Пересборка запущена"),
+                    @ApiResponse(responseCode = "401", description = "Неавторизован"),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён"),
+                    @ApiResponse(responseCode = "409", description = "Пересборка уже выполняется")
+            }
+    )
+    @PostMapping("/rebuild")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void rebuild() {
+        balanceSnapshotService.requestRebuild();
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardNumberDto;
+import com.example.bankcards.dto.ScrollDto;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.CardStatusException;
@@ -13,6 +15,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.converters.models.PageableAsQueryParam;
@@ -55,6 +59,27 @@ public class CardController {
         return service.getAllCards(pageable, statusFilter);
     }
 
+    @Operation(
+            summary = "Получить список всех карт по курсору",
+            description = "Возвращает страницу карт в порядке возрастания ID и курсор следующей страницы",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Страница карт успешно получена"),
+                    @ApiResponse(responseCode = "400", description = "Некорректный курсор"),
+                    @ApiResponse(responseCode = "401", description = "Неавторизован"),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён")
+            }
+    )
+    @GetMapping("/cards/scroll")
+    public ScrollDto<CardDto> scrollCards(
+            @Parameter(description = "Курсор из поля next предыдущей страницы")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(1000) int size,
+            @Parameter(description = "Фильтр по статусу карты")
+            @RequestParam(required = false) Card.Status statusFilter) {
+        return service.scrollCards(cursor, size, statusFilter);
+    }
+
     @Operation(
             summary = "Получить карты пользователя",
             description = "Доступно администратору или владельцу карт",
@@ -76,6 +101,23 @@ public class CardController {
         return service.getCardsByUserId(userId);
     }
 
+    @Operation(
+            summary = "Показать полный номер карты",
+            description = "Расшифровывает номер карты. Доступно только администратору",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Номер карты",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = CardNumberDto.class))),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён"),
+                    @ApiResponse(responseCode = "404", description = "Карта не найдена")
+            }
+    )
+    @GetMapping("/cards/{id}/number")
+    public CardNumberDto revealNumber(
+            @Parameter(description = "ID карты") @PathVariable("id") Long id) {
+        return service.revealNumber(id);
+    }
+
     @Operation(
             summary = "Создать новую карту",
             description = "Создаёт новую карту на основе переданных данных",
@@ -8,6 +8,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
@@ -41,16 +42,18 @@ public class CardToBlockController {
     }
 
     @Operation(
-            summary = "Заблокировать карты из списка",
-            description = "Блокирует все карты, которые находятся в списке на блокировку. Доступно только авторизованным администраторам.",
+            summary = "Запустить блокировку карт из списка",
+            description = "Запускает фоновую блокировку карт из списка, не дожидаясь её окончания. " +
+                    "Без вызова карты блокируются по расписанию. Доступно только авторизованным администраторам.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Карты успешно заблокированы"),
+                    @ApiResponse(responseCode = "202", description = "Блокировка запущена"),
                     @ApiResponse(responseCode = "401", description = "Неавторизован"),
                     @ApiResponse(responseCode = "403", description = "Доступ запрещён")
             }
     )
-    @GetMapping("/block")
+    @PostMapping("/block")
+    @ResponseStatus(HttpStatus.ACCEPTED)
     public void blockCards() {
-        cardToBlockService.blockCards();
+        cardToBlockService.requestBlock();
     }
 }
@@ -1,8 +1,11 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.DepositDto;
+import com.example.bankcards.dto.ScrollDto;
 import com.example.bankcards.dto.TransactionDto;
+import com.example.bankcards.dto.TransactionResultDto;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.service.TransactionExportService;
 import com.example.bankcards.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,15 +14,21 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.converters.models.PageableAsQueryParam;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -29,6 +38,7 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService service;
+    private final TransactionExportService exportService;
 
     @Operation(
             summary = "Создать транзакцию",
@@ -48,6 +58,26 @@ public class TransactionController {
         service.createTransaction(dto, ownerId);
     }
 
+    @Operation(
+            summary = "Создать пакет транзакций",
+            description = "Выполняет список транзакций от имени авторизованного пользователя в одной транзакции БД " +
+                    "и возвращает результат по каждой из них.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Результаты выполнения транзакций",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = TransactionResultDto.class))),
+                    @ApiResponse(responseCode = "400", description = "Превышен размер пакета"),
+                    @ApiResponse(responseCode = "401", description = "Неавторизован")
+            }
+    )
+    @PostMapping("/transaction/batch")
+    public List<TransactionResultDto> createTransactions(
+            @Parameter(description = "Список транзакций") @Valid @RequestBody List<TransactionDto> dtos,
+            Authentication auth) {
+        var authenticatedUser = ((User) auth.getPrincipal());
+        return service.createTransactions(dtos, authenticatedUser.getId());
+    }
+
     @Operation(
             summary = "Создать депозит",
             description = "Вносит депозит на счёт пользователя.",
@@ -92,4 +122,60 @@ public class TransactionController {
             return service.getTransactionHistoryByUserId(authenticatedUser.getId(), pageable, amountFilter);
         }
     }
+
+    @Operation(
+            summary = "Получить историю транзакций по курсору",
+            description = "Возвращает страницу истории транзакций в порядке возрастания ID и курсор следующей страницы. " +
+                    "Администратор видит все транзакции, обычный пользователь — только свои.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Страница истории транзакций"),
+                    @ApiResponse(responseCode = "400", description = "Некорректный курсор"),
+                    @ApiResponse(responseCode = "401", description = "Неавторизован")
+            }
+    )
+    @GetMapping("/transaction_history/scroll")
+    public ScrollDto<TransactionDto> scrollTransactionHistory(
+            Authentication auth,
+            @Parameter(description = "Курсор из поля next предыдущей страницы")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(1000) int size,
+            @Parameter(description = "Фильтр по сумме транзакции (опционально)")
+            @RequestParam(required = false) Long amountFilter) {
+        var authenticatedUser = ((User) auth.getPrincipal());
+        if (authenticatedUser.getRole() == User.Role.ADMIN) {
+            return service.scrollAllTransactionHistory(cursor, size, amountFilter);
+        } else {
+            return service.scrollTransactionHistoryByUserId(authenticatedUser.getId(), cursor, size, amountFilter);
+        }
+    }
+
+    @Operation(
+            summary = "Выгрузить историю транзакций",
+            description = "Потоково выгружает всю историю транзакций в формате NDJSON или CSV. " +
+                    "Администратор выгружает все транзакции, обычный пользователь — только свои.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Файл с историей транзакций"),
+                    @ApiResponse(responseCode = "401", description = "Неавторизован")
+            }
+    )
+    @GetMapping("/transaction_history/export")
+    public void exportTransactionHistory(
+            Authentication auth,
+            @Parameter(description = "Формат выгрузки")
+            @RequestParam(defaultValue = "NDJSON") TransactionExportService.Format format,
+            @Parameter(description = "Фильтр по сумме транзакции (опционально)")
+            @RequestParam(required = false) Long amountFilter,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"transactions." + format.getExtension() + "\"");
+        var authenticatedUser = ((User) auth.getPrincipal());
+        if (authenticatedUser.getRole() == User.Role.ADMIN) {
+            exportService.exportAll(amountFilter, format, response.getOutputStream());
+        } else {
+            exportService.exportByUserId(authenticatedUser.getId(), amountFilter, format, response.getOutputStream());
+        }
+    }
 }
@@ -0,0 +1,11 @@
+package com.example.bankcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CardNumberDto {
+    private Long id;
+    private String number;
+}
@@ -1,6 +1,7 @@
 package com.example.bankcards.dto;
 
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -10,5 +11,6 @@ public class DepositDto {
     @NotNull
     private Long toCardId;
     @NotNull
+    @Positive
     private Long amount;
 }
@@ -0,0 +1,27 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.util.CursorUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@AllArgsConstructor
+public class ScrollDto<T> {
+    private List<T> content;
+    private String next;
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code size + 1}: the extra row only tells
+     * whether another page exists and is not returned.
+     */
+    public static <T> ScrollDto<T> of(List<T> rows, int size, Function<T, Long> idExtractor) {
+        if (rows.size() <= size) {
+            return new ScrollDto<>(rows, null);
+        }
+        var content = rows.subList(0, size);
+        return new ScrollDto<>(content, CursorUtil.encode(idExtractor.apply(content.get(size - 1))));
+    }
+}
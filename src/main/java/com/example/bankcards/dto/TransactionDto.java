@@ -2,19 +2,27 @@ package com.example.bankcards.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDate;
 
 @Setter
 @Getter
+@NoArgsConstructor
+@AllArgsConstructor
 public class TransactionDto {
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long id;
     @NotNull
     private Long fromCard;
     @NotNull
     private Long toCard;
     @NotNull
+    @Positive
     private Long amount;
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private String login;
@@ -0,0 +1,18 @@
+package com.example.bankcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionResultDto {
+    private int index;
+    private Status status;
+    private String message;
+
+    public enum Status {SUCCESS, INVALID, CARD_OWNER, CARD_NOT_ACTIVE, INSUFFICIENT_FUNDS}
+}
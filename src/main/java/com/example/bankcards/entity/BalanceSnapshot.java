@@ -0,0 +1,22 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "balance_snapshots")
+public class BalanceSnapshot {
+    @Id
+    private Long cardId;
+    private Long balance;
+    private LocalDate asOf;
+}
@@ -14,9 +14,13 @@ import java.time.LocalDate;
 @Table(name = "cards")
 public class Card {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = 50)
     private Long id;
     private String number;
+    private String numberHash;
+    @Column(name = "number_last4")
+    private String numberLast4;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
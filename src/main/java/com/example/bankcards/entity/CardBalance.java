@@ -0,0 +1,19 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "card_balances")
+public class CardBalance {
+    @Id
+    private Long cardId;
+    private Long balance;
+}
@@ -10,7 +10,8 @@ import lombok.Setter;
 @Table(name = "cards_to_block")
 public class CardToBlock {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_to_block_seq")
+    @SequenceGenerator(name = "cards_to_block_seq", sequenceName = "cards_to_block_seq", allocationSize = 50)
     private Long id;
     @OneToOne
     private Card card;
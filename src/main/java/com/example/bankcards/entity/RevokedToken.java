@@ -0,0 +1,21 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.Instant;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+    @Id
+    private String jti;
+    private Instant expiresAt;
+}
@@ -0,0 +1,12 @@
+package com.example.bankcards.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class BatchSizeExceededException extends ResponseStatusException {
+    public static final String MSG = "Batch size: %d, exceeds limit: %d";
+
+    public BatchSizeExceededException(int size, int limit) {
+        super(HttpStatus.BAD_REQUEST, MSG.formatted(size, limit));
+    }
+}
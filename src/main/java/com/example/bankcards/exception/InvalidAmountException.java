@@ -0,0 +1,12 @@
+package com.example.bankcards.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidAmountException extends ResponseStatusException {
+    public static final String MSG = "Amount: %d, must be positive";
+
+    public InvalidAmountException(Long amount) {
+        super(HttpStatus.BAD_REQUEST, MSG.formatted(amount));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bankcards.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidCursorException extends ResponseStatusException {
+    public static final String MSG = "Invalid cursor: %s";
+
+    public InvalidCursorException(String cursor) {
+        super(HttpStatus.BAD_REQUEST, MSG.formatted(cursor));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bankcards.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidTokenException extends ResponseStatusException {
+    public static final String MSG = "Refresh token is invalid, expired or already used";
+
+    public InvalidTokenException() {
+        super(HttpStatus.UNAUTHORIZED, MSG);
+    }
+}
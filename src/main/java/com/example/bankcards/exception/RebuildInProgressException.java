@@ -0,0 +1,12 @@
+package com.example.bankcards.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class RebuildInProgressException extends ResponseStatusException {
+    public static final String MSG = "Balance snapshot rebuild is already in progress";
+
+    public RebuildInProgressException() {
+        super(HttpStatus.CONFLICT, MSG);
+    }
+}
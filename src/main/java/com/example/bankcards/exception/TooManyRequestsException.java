@@ -0,0 +1,12 @@
+package com.example.bankcards.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class TooManyRequestsException extends ResponseStatusException {
+    public static final String MSG = "Too many authentication requests, try again later";
+
+    public TooManyRequestsException() {
+        super(HttpStatus.TOO_MANY_REQUESTS, MSG);
+    }
+}
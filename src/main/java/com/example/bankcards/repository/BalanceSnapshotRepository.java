@@ -0,0 +1,59 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+@Repository
+@Transactional(readOnly = true)
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    /**
+     * Moves the snapshots of the given cards forward to {@code asOf} by adding the transactions dated between
+     * the previous snapshot and {@code asOf}. Cards without a snapshot are summed from the whole history.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into bank.balance_snapshots (card_id, balance, as_of)
+            select b.card_id,
+                   cast(coalesce(s.balance, 0) + coalesce(d.amount, 0) - coalesce(w.amount, 0) as bigint),
+                   :asOf
+            from bank.card_balances b
+            left join bank.balance_snapshots s on s.card_id = b.card_id
+            left join lateral (select sum(t.amount) as amount from bank.transactions t
+                               where t.to_card = b.card_id and t.transaction_date < :asOf
+                                 and (s.as_of is null or t.transaction_date >= s.as_of)) d on true
+            left join lateral (select sum(t.amount) as amount from bank.transactions t
+                               where t.from_card = b.card_id and t.transaction_date < :asOf
+                                 and (s.as_of is null or t.transaction_date >= s.as_of)) w on true
+            where b.card_id in (:cardIds)
+              and (s.as_of is null or s.as_of < :asOf)
+            on conflict (card_id) do update set balance = excluded.balance, as_of = excluded.as_of
+            """, nativeQuery = true)
+    int advance(@Param(value = "cardIds") Collection<Long> cardIds, @Param(value = "asOf") LocalDate asOf);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into bank.balance_snapshots (card_id, balance, as_of)
+            select b.card_id,
+                   cast(coalesce(d.amount, 0) - coalesce(w.amount, 0) as bigint),
+                   :asOf
+            from bank.card_balances b
+            left join lateral (select sum(t.amount) as amount from bank.transactions t
+                               where t.to_card = b.card_id and t.transaction_date < :asOf) d on true
+            left join lateral (select sum(t.amount) as amount from bank.transactions t
+                               where t.from_card = b.card_id and t.transaction_date < :asOf) w on true
+            where b.card_id in (:cardIds)
+            on conflict (card_id) do update set balance = excluded.balance, as_of = excluded.as_of
+            """, nativeQuery = true)
+    int rebuild(@Param(value = "cardIds") Collection<Long> cardIds, @Param(value = "asOf") LocalDate asOf);
+}
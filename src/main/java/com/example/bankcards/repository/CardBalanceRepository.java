@@ -0,0 +1,90 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Transactional(readOnly = true)
+public interface CardBalanceRepository extends JpaRepository<CardBalance, Long> {
+
+    @Query("select b.balance from CardBalance b where b.cardId = :cardId")
+    Optional<Long> findBalanceByCardId(@Param(value = "cardId") Long cardId);
+
+    List<CardBalance> findAllByCardIdIn(Collection<Long> cardIds);
+
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<CardBalance> findAllByCardIdInOrderByCardId(Collection<Long> cardIds);
+
+    @Transactional
+    @Modifying
+    @Query("update CardBalance b set b.balance = b.balance + :amount where b.cardId = :cardId")
+    int add(@Param(value = "cardId") Long cardId, @Param(value = "amount") Long amount);
+
+    @Transactional
+    @Modifying
+    @Query("update CardBalance b set b.balance = b.balance - :amount " +
+            "where b.cardId = :cardId and b.balance >= :amount")
+    int withdraw(@Param(value = "cardId") Long cardId, @Param(value = "amount") Long amount);
+
+    @Transactional
+    @Query(value = "select count(*) from (select pg_notify(:channel, :payload)) n", nativeQuery = true)
+    long publishNotification(@Param(value = "channel") String channel, @Param(value = "payload") String payload);
+
+    @Query("select b.cardId from CardBalance b where b.cardId > :afterId order by b.cardId")
+    List<Long> findCardIdsAfter(@Param(value = "afterId") Long afterId, Pageable pageable);
+
+    @Query("select b.cardId from CardBalance b where b.cardId > :afterId and b.cardId <= :toId order by b.cardId")
+    List<Long> findCardIdsBetween(@Param(value = "afterId") Long afterId, @Param(value = "toId") Long toId,
+                                  Pageable pageable);
+
+    @Query("select min(b.cardId) as lowest, max(b.cardId) as highest from CardBalance b")
+    CardIdRange findCardIdRange();
+
+    /**
+     * Compares stored balances with the balance snapshot plus the transactions dated since it,
+     * or with the whole history for cards that have no snapshot yet.
+     */
+    @Query(value = """
+            select b.card_id as id,
+                   b.balance as stored,
+                   cast(coalesce(s.balance, 0) + coalesce(d.amount, 0) - coalesce(w.amount, 0) as bigint) as actual
+            from bank.card_balances b
+            left join bank.balance_snapshots s on s.card_id = b.card_id
+            left join lateral (select sum(t.amount) as amount from bank.transactions t
+                               where t.to_card = b.card_id
+                                 and (s.as_of is null or t.transaction_date >= s.as_of)) d on true
+            left join lateral (select sum(t.amount) as amount from bank.transactions t
+                               where t.from_card = b.card_id
+                                 and (s.as_of is null or t.transaction_date >= s.as_of)) w on true
+            where b.card_id in (:cardIds)
+              and b.balance <> coalesce(s.balance, 0) + coalesce(d.amount, 0) - coalesce(w.amount, 0)
+            """, nativeQuery = true)
+    List<BalanceDrift> findDrift(@Param(value = "cardIds") Collection<Long> cardIds);
+
+    interface BalanceDrift {
+        Long getId();
+
+        Long getStored();
+
+        Long getActual();
+    }
+
+    interface CardIdRange {
+        Long getLowest();
+
+        Long getHighest();
+    }
+}
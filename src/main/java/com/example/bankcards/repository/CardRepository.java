@@ -9,28 +9,92 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 @Transactional(readOnly = true)
 public interface CardRepository extends JpaRepository<Card, Long> {
-    List<Card> getAllByUserId(Long userId);
+    @Query("select c.id as id, c.numberLast4 as numberLast4, c.user.id as ownerId, c.validityPeriod as validityPeriod, " +
+            "c.status as status, c.isAtm as isAtm from Card c where c.user.id = :userId")
+    List<CardView> getAllByUserId(Long userId);
 
     @Transactional
     @Modifying
     @Query("update Card c set c.status = :status where c.id = :id and c.isAtm is false")
     int updateStatus(@Param(value = "id") Long id, @Param(value = "status") Card.Status status);
 
+    @Transactional
+    @Modifying
+    @Query(value = """
+            update bank.cards set status = 'EXPIRED'
+            where id in (
+                select id from bank.cards
+                where status = 'ACTIVE' and validity_period < :today
+                order by validity_period
+                limit :limit
+                for update skip locked
+            )
+            """, nativeQuery = true)
+    int expireChunk(@Param(value = "today") LocalDate today, @Param(value = "limit") int limit);
+
     Optional<Card> findByIdAndUserId(Long cardId, Long userId);
 
+    List<Card> findAllByIdInAndUserId(Collection<Long> cardIds, Long userId);
+
     Optional<Card> findByNumber(String number);
 
-    Optional<Card> findFirstByIsAtmTrue();
+    Optional<Card> findByNumberHash(String numberHash);
+
+    @Query("select c.id as id, c.number as number from Card c " +
+            "where c.id > :afterId and (c.numberHash is null or c.numberLast4 is null or c.number not like 'v2:%') " +
+            "order by c.id")
+    List<CardNumberView> findLegacyNumbersAfter(Long afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update Card c set c.number = :number, c.numberHash = :numberHash, c.numberLast4 = :numberLast4 " +
+            "where c.id = :id and c.number = :oldNumber")
+    int updateNumber(@Param(value = "id") Long id, @Param(value = "oldNumber") String oldNumber,
+                     @Param(value = "number") String number, @Param(value = "numberHash") String numberHash,
+                     @Param(value = "numberLast4") String numberLast4);
+
+    @Query("select c.id from Card c where c.isAtm is true and c.status = :status order by c.id")
+    List<Long> findAtmCardIds(@Param(value = "status") Card.Status status);
 
-    @Query("select c from Card c where c.isAtm is false and (:statusFilter is null or c.status = :statusFilter)")
-    List<Card> findAllByIsAtmFalseAndStatus(Pageable pageable, Card.Status statusFilter);
+    @Query("select c.id as id, c.numberLast4 as numberLast4, c.user.id as ownerId, c.validityPeriod as validityPeriod, " +
+            "c.status as status, c.isAtm as isAtm from Card c " +
+            "where c.isAtm is false and (:statusFilter is null or c.status = :statusFilter)")
+    List<CardView> findAllByIsAtmFalseAndStatus(Pageable pageable, Card.Status statusFilter);
+
+    @Query("select c.id as id, c.numberLast4 as numberLast4, c.user.id as ownerId, c.validityPeriod as validityPeriod, " +
+            "c.status as status, c.isAtm as isAtm from Card c " +
+            "where c.isAtm is false and c.id > :afterId and (:statusFilter is null or c.status = :statusFilter) " +
+            "order by c.id")
+    List<CardView> findAllByIsAtmFalseAndStatusAfter(Long afterId, Card.Status statusFilter, Pageable pageable);
 
     Optional<Card> findByIdAndIsAtmFalse(Long cardId);
+
+    interface CardNumberView {
+        Long getId();
+
+        String getNumber();
+    }
+
+    interface CardView {
+        Long getId();
+
+        String getNumberLast4();
+
+        Long getOwnerId();
+
+        LocalDate getValidityPeriod();
+
+        Card.Status getStatus();
+
+        Boolean getIsAtm();
+    }
 }
 
@@ -2,8 +2,44 @@ package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.CardToBlock;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface CardToBlockRepository extends JpaRepository<CardToBlock, Long> {
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into bank.cards_to_block (card_id)
+            values (:cardId)
+            on conflict (card_id) do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("cardId") Long cardId);
+
+    /**
+     * Takes up to {@code limit} queued cards, blocks them and removes them from the queue in one statement.
+     * Rows locked by another node are skipped, so several nodes can drain the queue at the same time.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            with claimed as (
+                delete from bank.cards_to_block
+                where id in (
+                    select id from bank.cards_to_block
+                    order by id
+                    limit :limit
+                    for update skip locked
+                )
+                returning card_id
+            )
+            update bank.cards set status = 'BLOCKED'
+            where id in (select card_id from claimed)
+            """, nativeQuery = true)
+    int blockChunk(@Param("limit") int limit);
 }
@@ -1,30 +1,54 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.TransactionDto;
 import com.example.bankcards.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 @Transactional(readOnly = true)
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
-    @Query("select COALESCE(sum(t.amount), 0) from Transaction t where t.toCard.id = :cardId")
-    long countDepositAmount(@Param(value = "cardId") Long cardId);
+    String EXPORT_FETCH_SIZE = "1000";
 
-    @Query("select COALESCE(sum(t.amount), 0) from Transaction t where t.fromCard.id = :cardId")
-    long countWithdrawAmount(@Param(value = "cardId") Long cardId);
-
-    @Query("select t from Transaction t where t.user.id = :userId and " +
+    @Query("select new com.example.bankcards.dto.TransactionDto(t.id, t.fromCard.id, t.toCard.id, t.amount, u.login, t.date) " +
+            "from Transaction t join t.user u where u.id = :userId and " +
             "(:amountFilter is null or t.amount >= :amountFilter)")
-    List<Transaction> findAllByUserId(Long userId, Pageable pageable, Long amountFilter);
+    List<TransactionDto> findAllByUserId(Long userId, Pageable pageable, Long amountFilter);
 
-    @Query("select t from Transaction t where " +
+    @Query("select new com.example.bankcards.dto.TransactionDto(t.id, t.fromCard.id, t.toCard.id, t.amount, u.login, t.date) " +
+            "from Transaction t join t.user u where " +
             "(:amountFilter is null or t.amount >= :amountFilter)")
-    List<Transaction> findAllByAmount(Pageable pageable, Long amountFilter);
+    List<TransactionDto> findAllByAmount(Pageable pageable, Long amountFilter);
+
+    @Query("select new com.example.bankcards.dto.TransactionDto(t.id, t.fromCard.id, t.toCard.id, t.amount, u.login, t.date) " +
+            "from Transaction t join t.user u where t.user.id = :userId and t.id > :afterId and " +
+            "(:amountFilter is null or t.amount >= :amountFilter) order by t.id")
+    List<TransactionDto> findAllByUserIdAfter(Long userId, Long afterId, Long amountFilter, Pageable pageable);
+
+    @Query("select new com.example.bankcards.dto.TransactionDto(t.id, t.fromCard.id, t.toCard.id, t.amount, u.login, t.date) " +
+            "from Transaction t join t.user u where t.id > :afterId and " +
+            "(:amountFilter is null or t.amount >= :amountFilter) order by t.id")
+    List<TransactionDto> findAllByAmountAfter(Long afterId, Long amountFilter, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("select new com.example.bankcards.dto.TransactionDto(t.id, t.fromCard.id, t.toCard.id, t.amount, u.login, t.date) " +
+            "from Transaction t join t.user u where t.user.id = :userId and " +
+            "(:amountFilter is null or t.amount >= :amountFilter) order by t.id")
+    Stream<TransactionDto> streamAllByUserId(Long userId, Long amountFilter);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("select new com.example.bankcards.dto.TransactionDto(t.id, t.fromCard.id, t.toCard.id, t.amount, u.login, t.date) " +
+            "from Transaction t join t.user u where " +
+            "(:amountFilter is null or t.amount >= :amountFilter) order by t.id")
+    Stream<TransactionDto> streamAllByAmount(Long amountFilter);
 }
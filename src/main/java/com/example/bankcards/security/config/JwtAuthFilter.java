@@ -1,27 +1,64 @@
 package com.example.bankcards.security.config;
 
 import com.example.bankcards.security.service.JwtService;
+import com.example.bankcards.security.service.TokenRevocationService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final PrincipalSource principalSource;
+    private final Cache<String, UserDetails> userCache;
+    private final Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
+
+    public JwtAuthFilter(JwtService jwtService,
+                         UserDetailsService userDetailsService,
+                         TokenRevocationService tokenRevocationService,
+                         @Value("${application.security.jwt.principal}") PrincipalSource principalSource,
+                         @Value("${application.security.jwt.user-cache.ttl}") Duration userCacheTtl,
+                         @Value("${application.security.jwt.user-cache.maximum-size}") long userCacheMaximumSize,
+                         MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.principalSource = principalSource;
+        this.userCache = userCacheTtl.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(userCacheMaximumSize)
+                .expireAfterWrite(userCacheTtl)
+                .build();
+        for (Outcome outcome : Outcome.values()) {
+            timers.put(outcome, Timer.builder("bank.jwt.filter")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
 
     @Override
     protected void doFilterInternal(
@@ -33,30 +70,83 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             filterChain.doFilter(request, response);
             return;
         }
+        var start = System.nanoTime();
+        var outcome = authenticate(request);
+        timers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        filterChain.doFilter(request, response);
+    }
+
+    private Outcome authenticate(HttpServletRequest request) {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
         final String login;
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
+            return Outcome.ANONYMOUS;
         }
         jwt = authHeader.substring(7);
-        login = jwtService.extractUsername(jwt);
-        if (login != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(login);
-
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        final Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Outcome.INVALID;
+        }
+        if (jwtService.isRefreshToken(claims) || tokenRevocationService.isRevoked(claims.getId())) {
+            return Outcome.REVOKED;
+        }
+        login = claims.getSubject();
+        if (login == null || SecurityContextHolder.getContext().getAuthentication() != null) {
+            return Outcome.ANONYMOUS;
+        }
+        final UserDetails userDetails;
+        try {
+            userDetails = loadPrincipal(login, claims);
+        } catch (UsernameNotFoundException e) {
+            return Outcome.INVALID;
+        }
+        if (!jwtService.isTokenValid(claims, userDetails)) {
+            return Outcome.INVALID;
+        }
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+        authToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        return Outcome.AUTHENTICATED;
+    }
+
+    /**
+     * In {@link PrincipalSource#CLAIMS} mode the principal is rebuilt from the verified token, or, when the user
+     * cache is enabled, taken from a short-lived copy of the stored user so that deleted or demoted users lose
+     * access within its TTL. Tokens without the user claims always fall back to the database.
+     */
+    private UserDetails loadPrincipal(String login, Claims claims) {
+        if (principalSource == PrincipalSource.CLAIMS) {
+            var user = jwtService.extractUser(claims);
+            if (user != null) {
+                return userCache != null ? cachedUser(login) : user;
             }
         }
-        filterChain.doFilter(request, response);
+        return userDetailsService.loadUserByUsername(login);
     }
+
+    /**
+     * The user is loaded outside of the cache's own compute, which holds a map monitor for the duration of the load
+     * and would pin a virtual thread to its carrier while the query runs.
+     */
+    private UserDetails cachedUser(String login) {
+        var cached = userCache.getIfPresent(login);
+        if (cached == null) {
+            cached = userDetailsService.loadUserByUsername(login);
+            userCache.put(login, cached);
+        }
+        return cached;
+    }
+
+    public enum PrincipalSource {DATABASE, CLAIMS}
+
+    private enum Outcome {AUTHENTICATED, ANONYMOUS, INVALID, REVOKED}
 }
@@ -3,6 +3,7 @@ package com.example.bankcards.security.config;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -15,6 +16,8 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -25,6 +28,7 @@ import static com.example.bankcards.entity.User.Role.ADMIN;
 import static com.example.bankcards.entity.User.Role.USER;
 import static org.springframework.http.HttpMethod.*;
 import static org.springframework.security.config.http.SessionCreationPolicy.STATELESS;
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -49,6 +53,7 @@ public class SecurityConfig {
 
     private final UserDetailsService userDetailsService;
     private final JwtAuthFilter jwtAuthFilter;
+    private final Environment environment;
 
     @Bean
     public AuthenticationProvider authenticationProvider() {
@@ -81,6 +86,18 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * Prometheus scrapes without a token, but only on the separate management port, which is meant to be reachable
+     * from the monitoring network alone. On the application port actuator stays admin-only.
+     */
+    private RequestMatcher prometheusScrape() {
+        RequestMatcher managementPort = request -> {
+            var port = environment.getProperty("local.management.port", Integer.class);
+            return port != null && port == request.getLocalPort();
+        };
+        return new AndRequestMatcher(managementPort, antMatcher("/actuator/prometheus"));
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -89,17 +106,26 @@ public class SecurityConfig {
                 .authorizeHttpRequests(req ->
                         req.requestMatchers(WHITE_LIST_URL)
                                 .permitAll()
+                                .requestMatchers("/actuator/health").permitAll()
+                                .requestMatchers(prometheusScrape()).permitAll()
+                                .requestMatchers("/actuator/**").hasAnyRole(ADMIN.name())
                                 .requestMatchers("/user/**").hasAnyRole(ADMIN.name(), USER.name())
                                 .requestMatchers(GET, "/cards").hasAnyRole(ADMIN.name())
+                                .requestMatchers(GET, "/cards/scroll").hasAnyRole(ADMIN.name())
+                                .requestMatchers(GET, "/cards/{id}/number").hasAnyRole(ADMIN.name())
                                 .requestMatchers(GET, "/cards/{id}").hasAnyRole(ADMIN.name(), USER.name())
                                 .requestMatchers(POST, "/cards/**").hasAnyRole(ADMIN.name())
                                 .requestMatchers(PATCH, "/cards/**").hasAnyRole(ADMIN.name())
                                 .requestMatchers(DELETE, "/cards/**").hasAnyRole(ADMIN.name())
                                 .requestMatchers("/card_to_block/block").hasAnyRole(ADMIN.name())
+                                .requestMatchers("/balance_snapshots/**").hasAnyRole(ADMIN.name())
                                 .requestMatchers("/card_to_block/add").hasAnyRole(ADMIN.name(), USER.name())
                                 .requestMatchers(POST, "/transaction").hasAnyRole(ADMIN.name(), USER.name())
+                                .requestMatchers(POST, "/transaction/batch").hasAnyRole(ADMIN.name(), USER.name())
                                 .requestMatchers(POST, "/deposit").hasAnyRole(ADMIN.name(), USER.name())
                                 .requestMatchers(GET, "/transaction_history").hasAnyRole(ADMIN.name(), USER.name())
+                                .requestMatchers(GET, "/transaction_history/scroll").hasAnyRole(ADMIN.name(), USER.name())
+                                .requestMatchers(GET, "/transaction_history/export").hasAnyRole(ADMIN.name(), USER.name())
                                 .anyRequest()
                                 .authenticated()
                 )
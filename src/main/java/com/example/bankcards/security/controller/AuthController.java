@@ -2,11 +2,15 @@ package com.example.bankcards.security.controller;
 
 import com.example.bankcards.security.dto.AuthRequest;
 import com.example.bankcards.security.dto.AuthResponse;
+import com.example.bankcards.security.dto.RefreshRequest;
 import com.example.bankcards.security.service.AuthService;
 import com.example.bankcards.security.dto.RegisterRequest;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -17,6 +21,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
@@ -27,36 +33,80 @@ public class AuthController {
 
     @Operation(
             summary = "Регистрация нового пользователя",
-            description = "Создаёт нового пользователя в системе и возвращает токен авторизации.",
+            description = "Создаёт нового пользователя в системе и возвращает токен авторизации. " +
+                    "Хеширование пароля выполняется в отдельном ограниченном пуле потоков.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Пользователь успешно зарегистрирован",
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = AuthResponse.class))),
-                    @ApiResponse(responseCode = "400", description = "Некорректные данные запроса")
+                    @ApiResponse(responseCode = "400", description = "Некорректные данные запроса"),
+                    @ApiResponse(responseCode = "429", description = "Превышен лимит запросов или пул хеширования переполнен")
             }
     )
     @PostMapping("/register")
-    public AuthResponse register(
+    public CompletableFuture<AuthResponse> register(
             @Parameter(description = "Данные для регистрации пользователя", required = true)
-            @RequestBody RegisterRequest request) {
-        return authService.register(request);
+            @RequestBody RegisterRequest request,
+            HttpServletRequest httpRequest) {
+        return authService.registerAsync(request, httpRequest.getRemoteAddr());
     }
 
     @Operation(
             summary = "Аутентификация пользователя",
-            description = "Проверяет логин и пароль пользователя и возвращает токен авторизации.",
+            description = "Проверяет логин и пароль пользователя и возвращает токен авторизации. " +
+                    "Число попыток ограничено для каждого логина и для каждого IP-адреса.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Аутентификация успешна",
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = AuthResponse.class))),
                     @ApiResponse(responseCode = "400", description = "Некорректные данные запроса"),
-                    @ApiResponse(responseCode = "401", description = "Неверный логин или пароль")
+                    @ApiResponse(responseCode = "401", description = "Неверный логин или пароль"),
+                    @ApiResponse(responseCode = "429", description = "Превышен лимит запросов или пул хеширования переполнен")
             }
     )
     @PostMapping("/authenticate")
-    public AuthResponse authenticate(
+    public CompletableFuture<AuthResponse> authenticate(
             @Parameter(description = "Данные для входа пользователя", required = true)
-            @RequestBody AuthRequest request) {
-        return authService.authenticate(request);
+            @RequestBody AuthRequest request,
+            HttpServletRequest httpRequest) {
+        return authService.authenticateAsync(request, httpRequest.getRemoteAddr());
+    }
+
+    @Operation(
+            summary = "Обновление токенов",
+            description = "Принимает refresh-токен и возвращает новую пару токенов. " +
+                    "Переданный refresh-токен отзывается и повторно не принимается.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Токены обновлены",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = AuthResponse.class))),
+                    @ApiResponse(responseCode = "401", description = "Refresh-токен недействителен или уже использован")
+            }
+    )
+    @PostMapping("/refresh")
+    public AuthResponse refresh(
+            @Parameter(description = "Refresh-токен", required = true)
+            @RequestBody RefreshRequest request) {
+        return authService.refresh(request);
+    }
+
+    @Operation(
+            summary = "Выход из системы",
+            description = "Отзывает refresh-токен и, если он передан в заголовке Authorization, access-токен.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Токены отозваны"),
+                    @ApiResponse(responseCode = "401", description = "Refresh-токен недействителен")
+            }
+    )
+    @PostMapping("/logout")
+    public void logout(
+            @Parameter(description = "Refresh-токен", required = true)
+            @RequestBody RefreshRequest request,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        var accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(request, accessToken);
     }
 }
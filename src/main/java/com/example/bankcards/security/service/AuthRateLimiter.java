@@ -0,0 +1,48 @@
+package com.example.bankcards.security.service;
+
+import com.example.bankcards.exception.TooManyRequestsException;
+import com.example.bankcards.util.TokenBucket;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Per-login and per-IP token buckets for the password endpoints. A bucket that has not been touched for a
+ * whole refill period is full again, so evicting it after that time loses nothing and keeps memory bounded.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private final LoadingCache<String, TokenBucket> loginBuckets;
+    private final LoadingCache<String, TokenBucket> ipBuckets;
+    private final Counter rejected;
+
+    public AuthRateLimiter(@Value("${application.security.rate-limit.login.capacity}") int loginCapacity,
+                           @Value("${application.security.rate-limit.login.refill-period}") Duration loginRefillPeriod,
+                           @Value("${application.security.rate-limit.ip.capacity}") int ipCapacity,
+                           @Value("${application.security.rate-limit.ip.refill-period}") Duration ipRefillPeriod,
+                           @Value("${application.security.rate-limit.maximum-keys}") long maximumKeys,
+                           MeterRegistry meterRegistry) {
+        this.loginBuckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(loginRefillPeriod)
+                .build(login -> new TokenBucket(loginCapacity, loginRefillPeriod));
+        this.ipBuckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(ipRefillPeriod)
+                .build(ip -> new TokenBucket(ipCapacity, ipRefillPeriod));
+        this.rejected = Counter.builder("auth.rate_limit.rejected").register(meterRegistry);
+    }
+
+    public void acquire(String login, String clientIp) {
+        if (!ipBuckets.get(clientIp).tryAcquire() || login != null && !loginBuckets.get(login).tryAcquire()) {
+            rejected.increment();
+            throw new TooManyRequestsException();
+        }
+    }
+}
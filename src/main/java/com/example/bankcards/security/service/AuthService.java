@@ -1,16 +1,22 @@
 package com.example.bankcards.security.service;
 
 import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidTokenException;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.dto.AuthRequest;
 import com.example.bankcards.security.dto.AuthResponse;
+import com.example.bankcards.security.dto.RefreshRequest;
 import com.example.bankcards.security.dto.RegisterRequest;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -19,6 +25,19 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationService tokenRevocationService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final AuthRateLimiter authRateLimiter;
+
+    public CompletableFuture<AuthResponse> registerAsync(RegisterRequest request, String clientIp) {
+        authRateLimiter.acquire(request.getLogin(), clientIp);
+        return passwordHashingExecutor.submit(() -> register(request));
+    }
+
+    public CompletableFuture<AuthResponse> authenticateAsync(AuthRequest request, String clientIp) {
+        authRateLimiter.acquire(request.getLogin(), clientIp);
+        return passwordHashingExecutor.submit(() -> authenticate(request));
+    }
 
     public AuthResponse register(RegisterRequest request) {
         var user = User.builder()
@@ -27,13 +46,7 @@ public class AuthService {
                 .role(request.getRole())
                 .build();
         userRepository.save(user);
-        var accessToken = jwtService.generateToken(user);
-        var refreshToken = jwtService.generateRefreshToken(user);
-
-        return AuthResponse.builder()
-                .token(accessToken)
-                .refreshToken(refreshToken)
-                .build();
+        return issueTokens(user);
     }
 
     public AuthResponse authenticate(AuthRequest request) {
@@ -44,6 +57,47 @@ public class AuthService {
                 )
         );
         var user = userRepository.findByLogin(request.getLogin()).orElseThrow();
+        return issueTokens(user);
+    }
+
+    public AuthResponse refresh(RefreshRequest request) {
+        var claims = parseRefreshToken(request.getRefreshToken());
+        var user = userRepository.findByLogin(claims.getSubject()).orElseThrow(InvalidTokenException::new);
+        if (!tokenRevocationService.revoke(claims.getId(), claims.getExpiration())) {
+            throw new InvalidTokenException();
+        }
+        return issueTokens(user);
+    }
+
+    public void logout(RefreshRequest request, String accessToken) {
+        var claims = parseRefreshToken(request.getRefreshToken());
+        tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+        if (accessToken != null) {
+            try {
+                var accessClaims = jwtService.extractAllClaims(accessToken);
+                if (accessClaims.getSubject().equals(claims.getSubject())) {
+                    tokenRevocationService.revoke(accessClaims.getId(), accessClaims.getExpiration());
+                }
+            } catch (JwtException | IllegalArgumentException ignored) {
+                // An expired or malformed access token cannot be used anyway.
+            }
+        }
+    }
+
+    private Claims parseRefreshToken(String token) {
+        final Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException();
+        }
+        if (!jwtService.isRefreshToken(claims) || claims.getId() == null) {
+            throw new InvalidTokenException();
+        }
+        return claims;
+    }
+
+    private AuthResponse issueTokens(User user) {
         var accessToken = jwtService.generateToken(user);
         var refreshToken = jwtService.generateRefreshToken(user);
         return AuthResponse.builder()
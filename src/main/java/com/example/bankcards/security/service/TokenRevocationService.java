@@ -0,0 +1,75 @@
+package com.example.bankcards.security.service;
+
+import com.example.bankcards.repository.RevokedTokenRepository;
+import com.example.bankcards.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Deny list of token ids. Every lookup on the request path goes through an in-memory Bloom filter first,
+ * so only revoked ids and rare false positives reach the database. The filter is rebuilt from the table
+ * periodically, which drops expired ids and picks up revocations made on other nodes.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private volatile BloomFilter filter;
+    private volatile BloomFilter next;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${application.security.revocation.expected-insertions}") long expectedInsertions,
+                                  @Value("${application.security.revocation.false-positive-probability}") double falsePositiveProbability) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveProbability);
+    }
+
+    /**
+     * Returns {@code false} if the token was already revoked, which makes refresh-token rotation single-use
+     * even when the same token is presented concurrently.
+     */
+    public boolean revoke(String jti, Date expiresAt) {
+        if (jti == null) {
+            return false;
+        }
+        var inserted = revokedTokenRepository.insertIfAbsent(jti, expiresAt.toInstant()) == 1;
+        // The filter being rebuilt goes first: if the rebuild swaps filters in between, the id is already in
+        // the new one, whereas an id put only into the old filter would be dropped with it.
+        var rebuilding = next;
+        if (rebuilding != null) {
+            rebuilding.put(jti);
+        }
+        filter.put(jti);
+        return inserted;
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && filter.mightContain(jti) && revokedTokenRepository.existsById(jti);
+    }
+
+    @Scheduled(fixedDelayString = "${application.security.revocation.rebuild-interval}")
+    public void rebuild() {
+        var now = Instant.now();
+        revokedTokenRepository.deleteExpired(now);
+        // Revocations that commit while the table is being read are also written to the new filter.
+        var rebuilt = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        next = rebuilt;
+        var jtis = revokedTokenRepository.findActiveJtis(now);
+        jtis.forEach(rebuilt::put);
+        filter = rebuilt;
+        next = null;
+        if (jtis.size() > expectedInsertions) {
+            log.warn("Revoked tokens: {}, exceed expected insertions: {}", jtis.size(), expectedInsertions);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.ATMNotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Active ATM card ids kept in memory, so a deposit needs no lookup. Deposits rotate over all ATM cards,
+ * which spreads the balance updates of the ATM side over several rows instead of one hot row.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AtmCardRegistry {
+
+    private final CardRepository cardRepository;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<Long> atmCardIds = List.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${application.atm.refresh-interval}",
+            fixedDelayString = "${application.atm.refresh-interval}")
+    public void refresh() {
+        var ids = List.copyOf(cardRepository.findAtmCardIds(Card.Status.ACTIVE));
+        if (!ids.equals(atmCardIds)) {
+            log.info("ATM cards: {}", ids);
+        }
+        atmCardIds = ids;
+    }
+
+    public Long nextAtmCardId() {
+        var ids = atmCardIds;
+        if (ids.isEmpty()) {
+            throw new ATMNotFoundException();
+        }
+        return ids.get(Math.floorMod(next.getAndIncrement(), ids.size()));
+    }
+}
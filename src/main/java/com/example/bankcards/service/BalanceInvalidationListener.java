@@ -0,0 +1,115 @@
+package com.example.bankcards.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "application.cache.invalidation.enabled", havingValue = "true")
+public class BalanceInvalidationListener implements SmartLifecycle {
+
+    private final TransactionCacheService transactionCacheService;
+    private final BalanceInvalidationPublisher publisher;
+    private final DataSourceProperties dataSourceProperties;
+
+    @Value("${application.cache.invalidation.channel}")
+    private String channel;
+
+    @Value("${application.cache.invalidation.poll-timeout}")
+    private Duration pollTimeout;
+
+    @Value("${application.cache.invalidation.reconnect-delay}")
+    private Duration reconnectDelay;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("balance-invalidation-listener")
+                .daemon()
+                .start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (var connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword());
+                 var statement = connection.createStatement()) {
+                statement.execute("LISTEN " + channel);
+                // Anything published while this node was not listening is lost, so start clean.
+                transactionCacheService.evictAll();
+                var pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    var notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            // A bad payload must not end the listener thread, or this node stops evicting for good.
+                            try {
+                                handle(notification.getParameter());
+                            } catch (RuntimeException e) {
+                                log.warn("Failed to handle balance invalidation: {}", notification.getParameter(), e);
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Balance invalidation listener disconnected, reconnecting in {}", reconnectDelay, e);
+                    sleep(reconnectDelay);
+                }
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        var separator = payload.indexOf(BalanceInvalidationPublisher.NODE_SEPARATOR);
+        if (separator < 0 || payload.substring(0, separator).equals(publisher.getNodeId())) {
+            return;
+        }
+        List<Long> cardIds = new ArrayList<>();
+        for (String cardId : payload.substring(separator + 1).split(String.valueOf(BalanceInvalidationPublisher.ID_SEPARATOR))) {
+            if (!cardId.isEmpty()) {
+                cardIds.add(Long.valueOf(cardId));
+            }
+        }
+        transactionCacheService.evict(cardIds);
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardBalanceRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class BalanceInvalidationPublisher {
+
+    static final char NODE_SEPARATOR = '|';
+    static final char ID_SEPARATOR = ',';
+    private static final int MAX_PAYLOAD_LENGTH = 7000;
+
+    private final CardBalanceRepository cardBalanceRepository;
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${application.cache.invalidation.enabled}")
+    private boolean enabled;
+
+    @Value("${application.cache.invalidation.channel}")
+    private String channel;
+
+    /**
+     * Must be called inside the transaction that changed the balances: Postgres delivers the
+     * notification to listeners only once that transaction commits, and drops it on rollback.
+     */
+    public void publish(Collection<Long> cardIds) {
+        if (!enabled || cardIds.isEmpty()) {
+            return;
+        }
+        var payload = new StringBuilder(nodeId).append(NODE_SEPARATOR);
+        var headerLength = payload.length();
+        for (Long cardId : cardIds) {
+            if (payload.length() > MAX_PAYLOAD_LENGTH) {
+                send(payload);
+                payload.setLength(headerLength);
+            }
+            if (payload.length() > headerLength) {
+                payload.append(ID_SEPARATOR);
+            }
+            payload.append(cardId);
+        }
+        send(payload);
+    }
+
+    private void send(StringBuilder payload) {
+        cardBalanceRepository.publishNotification(channel, payload.toString());
+    }
+}
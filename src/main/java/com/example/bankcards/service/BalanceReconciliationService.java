@@ -0,0 +1,55 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardBalanceRepository;
+import com.example.bankcards.repository.CardBalanceRepository.BalanceDrift;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BalanceReconciliationService {
+
+    private final CardBalanceRepository cardBalanceRepository;
+
+    @Value("${application.balance.reconciliation.chunk-size}")
+    private int chunkSize;
+
+    @Value("${application.balance.reconciliation.repair}")
+    private boolean repair;
+
+    @Scheduled(cron = "${application.balance.reconciliation.cron}")
+    public void scheduledReconcile() {
+        var drifts = reconcile();
+        log.info("Balance reconciliation finished, drifted cards: {}", drifts.size());
+    }
+
+    public List<BalanceDrift> reconcile() {
+        List<BalanceDrift> drifts = new ArrayList<>();
+        var afterId = 0L;
+        List<Long> cardIds;
+        do {
+            cardIds = cardBalanceRepository.findCardIdsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (cardIds.isEmpty()) {
+                break;
+            }
+            for (BalanceDrift drift : cardBalanceRepository.findDrift(cardIds)) {
+                log.warn("Card id: {}, stored balance: {}, balance from history: {}",
+                        drift.getId(), drift.getStored(), drift.getActual());
+                if (repair) {
+                    cardBalanceRepository.add(drift.getId(), drift.getActual() - drift.getStored());
+                }
+                drifts.add(drift);
+            }
+            afterId = cardIds.get(cardIds.size() - 1);
+        } while (cardIds.size() == chunkSize);
+        return drifts;
+    }
+}
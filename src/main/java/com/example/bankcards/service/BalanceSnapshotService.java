@@ -0,0 +1,150 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.exception.RebuildInProgressException;
+import com.example.bankcards.repository.BalanceSnapshotRepository;
+import com.example.bankcards.repository.CardBalanceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps per-card balance snapshots of the transaction history, so that reconciliation only sums the transactions
+ * dated since the snapshot. A snapshot covers whole days up to {@code lag-days} ago: transaction ids come from a
+ * pooled sequence and are not in commit order, while a transaction dated that long ago has surely committed.
+ */
+@Slf4j
+@Service
+public class BalanceSnapshotService {
+
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final CardBalanceRepository cardBalanceRepository;
+    private final int chunkSize;
+    private final int lagDays;
+    private final int rebuildParallelism;
+    private final Counter writtenCounter;
+    private final ExecutorService rebuildExecutor =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("balance-snapshot-rebuild").daemon().factory());
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public BalanceSnapshotService(BalanceSnapshotRepository balanceSnapshotRepository,
+                                  CardBalanceRepository cardBalanceRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${application.balance.snapshot.chunk-size}") int chunkSize,
+                                  @Value("${application.balance.snapshot.lag-days}") int lagDays,
+                                  @Value("${application.balance.snapshot.rebuild-parallelism}") int rebuildParallelism) {
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.cardBalanceRepository = cardBalanceRepository;
+        this.chunkSize = chunkSize;
+        this.lagDays = lagDays;
+        this.rebuildParallelism = rebuildParallelism;
+        this.writtenCounter = Counter.builder("balance_snapshot.written").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${application.balance.snapshot.cron}")
+    public void scheduledAdvance() {
+        var written = advance(LocalDate.now());
+        log.info("Balance snapshots advanced, cards: {}", written);
+    }
+
+    /**
+     * Rebuilds every snapshot from the whole history on its own thread instead of waiting for it to finish,
+     * so the replay never holds the shared scheduler. Only one rebuild runs at a time.
+     */
+    public void requestRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new RebuildInProgressException();
+        }
+        try {
+            rebuildExecutor.execute(() -> {
+                try {
+                    var written = rebuild(LocalDate.now());
+                    log.info("Balance snapshots rebuilt, cards: {}", written);
+                } catch (RuntimeException e) {
+                    log.error("Balance snapshot rebuild failed", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuilding.set(false);
+            throw e;
+        }
+    }
+
+    public int advance(LocalDate today) {
+        var asOf = today.minusDays(lagDays);
+        var total = 0;
+        var afterId = 0L;
+        List<Long> cardIds;
+        do {
+            cardIds = cardBalanceRepository.findCardIdsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (cardIds.isEmpty()) {
+                break;
+            }
+            total += write(balanceSnapshotRepository.advance(cardIds, asOf));
+            afterId = cardIds.get(cardIds.size() - 1);
+        } while (cardIds.size() == chunkSize);
+        return total;
+    }
+
+    /**
+     * Splits the card id space into {@code rebuild-parallelism} ranges and replays the history of each range
+     * on its own thread and connection.
+     */
+    public int rebuild(LocalDate today) {
+        var asOf = today.minusDays(lagDays);
+        var range = cardBalanceRepository.findCardIdRange();
+        if (range == null || range.getLowest() == null) {
+            return 0;
+        }
+        var step = (range.getHighest() - range.getLowest()) / rebuildParallelism + 1;
+        List<CompletableFuture<Integer>> ranges = new ArrayList<>();
+        try (var executor = Executors.newFixedThreadPool(rebuildParallelism)) {
+            for (long from = range.getLowest(); from <= range.getHighest(); from += step) {
+                var fromId = from;
+                var toId = Math.min(from + step - 1, range.getHighest());
+                ranges.add(CompletableFuture.supplyAsync(() -> rebuildRange(fromId, toId, asOf), executor));
+            }
+            return ranges.stream().mapToInt(CompletableFuture::join).sum();
+        }
+    }
+
+    private int rebuildRange(long fromId, long toId, LocalDate asOf) {
+        var total = 0;
+        var afterId = fromId - 1;
+        List<Long> cardIds;
+        do {
+            cardIds = cardBalanceRepository.findCardIdsBetween(afterId, toId, PageRequest.of(0, chunkSize));
+            if (cardIds.isEmpty()) {
+                break;
+            }
+            total += write(balanceSnapshotRepository.rebuild(cardIds, asOf));
+            afterId = cardIds.get(cardIds.size() - 1);
+        } while (cardIds.size() == chunkSize);
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdown();
+    }
+
+    private int write(int written) {
+        writtenCounter.increment(written);
+        return written;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Marks active cards past their validity period as EXPIRED in chunks. Transfers do not depend on this job:
+ * {@link TransactionService} already rejects such cards by their validity period.
+ */
+@Slf4j
+@Service
+public class CardExpiryService {
+
+    private final CardRepository cardRepository;
+    private final int chunkSize;
+    private final Counter expiredCounter;
+
+    public CardExpiryService(CardRepository cardRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${application.card-expiry.chunk-size}") int chunkSize) {
+        this.cardRepository = cardRepository;
+        this.chunkSize = chunkSize;
+        this.expiredCounter = Counter.builder("card_expiry.expired").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${application.card-expiry.cron}")
+    public void scheduledExpire() {
+        var expired = expireCards(LocalDate.now());
+        if (expired > 0) {
+            log.info("Card expiry finished, expired cards: {}", expired);
+        }
+    }
+
+    public int expireCards(LocalDate today) {
+        var total = 0;
+        int expired;
+        do {
+            expired = cardRepository.expireChunk(today, chunkSize);
+            expiredCounter.increment(expired);
+            total += expired;
+        } while (expired == chunkSize);
+        return total;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.bankcards.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class CardLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public CardLocks(@Value("${application.transaction.lock-stripes}") int stripeCount) {
+        var size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Handle lock(Long... cardIds) {
+        return lock(Arrays.asList(cardIds));
+    }
+
+    /**
+     * Locks the stripes of all given cards in ascending stripe order, so two callers locking
+     * overlapping sets of cards can never deadlock each other.
+     */
+    public Handle lock(Collection<Long> cardIds) {
+        var indexes = cardIds.stream()
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+        var locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+        } catch (RuntimeException e) {
+            unlock(indexes, locked);
+            throw e;
+        }
+        return () -> unlock(indexes, indexes.length);
+    }
+
+    private void unlock(int[] indexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    private int stripeOf(Long cardId) {
+        var hash = Long.hashCode(cardId);
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    public interface Handle extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardRepository.CardNumberView;
+import com.example.bankcards.util.CardNumberUtil;
+import com.example.bankcards.util.EncryptionUtilService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Rewrites card numbers still encrypted with DES/ECB, or missing their blind index or last digits,
+ * to AES-GCM in small batches while the application keeps serving requests. Each row is updated only
+ * if its ciphertext is unchanged since it was read, so concurrent writes are never overwritten.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardNumberMigrationService {
+
+    private final CardRepository cardRepository;
+    private final EncryptionUtilService encryptionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.encryption.migration.batch-size}")
+    private int batchSize;
+
+    @Value("${application.encryption.migration.idle-interval}")
+    private Duration idleInterval;
+
+    private volatile Long idleSince;
+
+    /**
+     * Once no legacy numbers are left, scans only every {@code idle-interval}: the legacy-number query cannot use
+     * an index, but during a rolling deploy nodes still running the old version may write DES numbers again.
+     */
+    @Scheduled(initialDelayString = "${application.encryption.migration.initial-delay}",
+            fixedDelayString = "${application.encryption.migration.fixed-delay}")
+    public void scheduledMigrate() {
+        var since = idleSince;
+        if (since != null && System.nanoTime() - since < idleInterval.toNanos()) {
+            return;
+        }
+        var migrated = migrate();
+        if (migrated > 0) {
+            log.info("Card number re-encryption finished, migrated cards: {}", migrated);
+        }
+        // Nothing migrated can also mean every conditional update lost its race, so check that nothing is left.
+        if (migrated == 0 && cardRepository.findLegacyNumbersAfter(0L, PageRequest.of(0, 1)).isEmpty()) {
+            if (since == null) {
+                log.info("No legacy card numbers left, next check in {}", idleInterval);
+            }
+            idleSince = System.nanoTime();
+        } else {
+            idleSince = null;
+        }
+    }
+
+    public int migrate() {
+        var migrated = 0;
+        var afterId = 0L;
+        List<CardNumberView> cards;
+        do {
+            cards = cardRepository.findLegacyNumbersAfter(afterId, PageRequest.of(0, batchSize));
+            if (cards.isEmpty()) {
+                break;
+            }
+            migrated += migrateBatch(cards);
+            afterId = cards.get(cards.size() - 1).getId();
+        } while (cards.size() == batchSize);
+        return migrated;
+    }
+
+    private int migrateBatch(List<CardNumberView> cards) {
+        Integer updated = transactionTemplate.execute(status -> {
+            var count = 0;
+            for (CardNumberView card : cards) {
+                var number = encryptionService.decrypt(card.getNumber());
+                count += cardRepository.updateNumber(card.getId(), card.getNumber(), encryptionService.encrypt(number),
+                        encryptionService.hash(number), CardNumberUtil.lastDigits(number));
+            }
+            return count;
+        });
+        return updated == null ? 0 : updated;
+    }
+}
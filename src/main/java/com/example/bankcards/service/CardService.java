@@ -1,83 +1,85 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardNumberDto;
+import com.example.bankcards.dto.ScrollDto;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardBalance;
 import com.example.bankcards.exception.CardNotFoundException;
 import com.example.bankcards.exception.UserNotFoundException;
+import com.example.bankcards.repository.CardBalanceRepository;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardRepository.CardView;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.util.CardNumberUtil;
+import com.example.bankcards.util.CursorUtil;
 import com.example.bankcards.util.EncryptionUtilService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CardService {
 
     private final CardRepository cardRepository;
+    private final CardBalanceRepository cardBalanceRepository;
     private final UserRepository userRepository;
     private final EncryptionUtilService encryptionService;
     private final TransactionService transactionService;
 
+    @Transactional
     public CardDto createCard(CardDto dto) {
         var userId = dto.getOwnerId();
         var user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
         var card = Card.builder()
                 .number(encryptionService.encrypt(dto.getNumber()))
+                .numberHash(encryptionService.hash(dto.getNumber()))
+                .numberLast4(CardNumberUtil.lastDigits(dto.getNumber()))
                 .user(user)
                 .validityPeriod(LocalDate.now().plusYears(1))
                 .status(dto.getStatus())
                 .build();
         cardRepository.save(card);
+        var balance = cardBalanceRepository.save(CardBalance.builder()
+                .cardId(card.getId())
+                .balance(0L)
+                .build());
 
         dto.setId(card.getId());
         dto.setValidityPeriod(card.getValidityPeriod());
-        dto.setNumber(encryptionService.decrypt(card.getNumber()));
-        dto.setBalance(transactionService.getBalanceFromCache(card.getId()));
+        dto.setBalance(balance.getBalance());
         CardNumberUtil.hide(dto);
         return dto;
     }
 
     public List<CardDto> getAllCards(Pageable pageable, Card.Status statusFilter) {
-        return cardRepository.findAllByIsAtmFalseAndStatus(pageable, statusFilter).stream()
-                .map(entity -> {
-                    var card = CardDto.builder()
-                            .id(entity.getId())
-                            .number(encryptionService.decrypt(entity.getNumber()))
-                            .ownerId(entity.getUser().getId())
-                            .validityPeriod(entity.getValidityPeriod())
-                            .status(entity.getStatus())
-                            .isAtm(entity.isAtm())
-                            .balance(transactionService.getBalanceFromCache(entity.getId()))
-                            .build();
-                    CardNumberUtil.hide(card);
-                    return card;
-                })
-                .toList();
+        return toDtos(cardRepository.findAllByIsAtmFalseAndStatus(pageable, statusFilter));
+    }
+
+    public ScrollDto<CardDto> scrollCards(String cursor, int size, Card.Status statusFilter) {
+        var views = cardRepository.findAllByIsAtmFalseAndStatusAfter(
+                CursorUtil.decode(cursor), statusFilter, PageRequest.of(0, size + 1));
+        var page = ScrollDto.of(views, size, CardView::getId);
+        return new ScrollDto<>(toDtos(page.getContent()), page.getNext());
     }
 
     public List<CardDto> getCardsByUserId(Long userId) {
         userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
-        return cardRepository.getAllByUserId(userId).stream()
-                .map(entity -> {
-                    var card = CardDto.builder()
-                            .id(entity.getId())
-                            .number(encryptionService.decrypt(entity.getNumber()))
-                            .ownerId(entity.getUser().getId())
-                            .validityPeriod(entity.getValidityPeriod())
-                            .status(entity.getStatus())
-                            .isAtm(entity.isAtm())
-                            .balance(transactionService.getBalanceFromCache(entity.getId()))
-                            .build();
-                    CardNumberUtil.hide(card);
-                    return card;
-                })
-                .toList();
+        return toDtos(cardRepository.getAllByUserId(userId));
+    }
+
+    public CardNumberDto revealNumber(Long id) {
+        var card = cardRepository.findById(id).orElseThrow(() -> new CardNotFoundException(id));
+        log.info("Card number revealed, card id: {}", id);
+        return new CardNumberDto(card.getId(), encryptionService.decrypt(card.getNumber()));
     }
 
     public void updateStatus(Long id, Card.Status status) {
@@ -91,4 +93,19 @@ public class CardService {
         var card = cardRepository.findByIdAndIsAtmFalse(id).orElseThrow(() -> new CardNotFoundException(id));
         cardRepository.delete(card);
     }
+
+    private List<CardDto> toDtos(List<CardView> cards) {
+        var balances = transactionService.getBalancesFromCache(cards.stream().map(CardView::getId).toList());
+        return cards.stream()
+                .map(view -> CardDto.builder()
+                        .id(view.getId())
+                        .number(CardNumberUtil.mask(view.getNumberLast4() != null ? view.getNumberLast4() : "****"))
+                        .ownerId(view.getOwnerId())
+                        .validityPeriod(view.getValidityPeriod())
+                        .status(view.getStatus())
+                        .isAtm(view.getIsAtm())
+                        .balance(balances.get(view.getId()))
+                        .build())
+                .toList();
+    }
 }
@@ -1,34 +1,79 @@
 package com.example.bankcards.service;
 
-import com.example.bankcards.entity.Card;
-import com.example.bankcards.entity.CardToBlock;
 import com.example.bankcards.exception.CardNotFoundException;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.CardToBlockRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class CardToBlockService {
 
     private final CardToBlockRepository cardToBlockRepository;
     private final CardRepository cardRepository;
+    private final TaskScheduler taskScheduler;
+    private final int chunkSize;
+    private final Counter blockedCounter;
+    private final Timer runTimer;
+    private final AtomicLong queueSize = new AtomicLong();
+
+    public CardToBlockService(CardToBlockRepository cardToBlockRepository,
+                              CardRepository cardRepository,
+                              TaskScheduler taskScheduler,
+                              MeterRegistry meterRegistry,
+                              @Value("${application.card-block.chunk-size}") int chunkSize) {
+        this.cardToBlockRepository = cardToBlockRepository;
+        this.cardRepository = cardRepository;
+        this.taskScheduler = taskScheduler;
+        this.chunkSize = chunkSize;
+        this.blockedCounter = Counter.builder("card_block.blocked").register(meterRegistry);
+        this.runTimer = Timer.builder("card_block.run").register(meterRegistry);
+        meterRegistry.gauge("card_block.queue.size", queueSize);
+    }
 
     public void addCardToBlock(Long cardId, Long ownerId) {
         var card = cardRepository.findByIdAndUserId(cardId, ownerId)
                 .orElseThrow(() -> new CardNotFoundException(cardId));
-        var cardToBlock = new CardToBlock();
-        cardToBlock.setCard(card);
-        cardToBlockRepository.save(cardToBlock);
+        cardToBlockRepository.insertIfAbsent(card.getId());
+    }
+
+    /**
+     * Starts a run right away on the scheduler instead of waiting for the next scheduled one.
+     */
+    public void requestBlock() {
+        taskScheduler.schedule(this::scheduledBlockCards, Instant.now());
+    }
+
+    @Scheduled(initialDelayString = "${application.card-block.initial-delay}",
+            fixedDelayString = "${application.card-block.fixed-delay}")
+    public void scheduledBlockCards() {
+        var sample = Timer.start();
+        var blocked = blockCards();
+        sample.stop(runTimer);
+        if (blocked > 0) {
+            log.info("Card blocking finished, blocked cards: {}", blocked);
+        }
     }
 
-    public void blockCards() {
-        List<Card> cardsToBlock = cardToBlockRepository.findAll().stream().map(CardToBlock::getCard).toList();
-        cardsToBlock.forEach(card -> card.setStatus(Card.Status.BLOCKED));
-        cardRepository.saveAll(cardsToBlock);
-        cardToBlockRepository.deleteAll();
+    public int blockCards() {
+        var total = 0;
+        int blocked;
+        do {
+            blocked = cardToBlockRepository.blockChunk(chunkSize);
+            blockedCounter.increment(blocked);
+            total += blocked;
+        } while (blocked == chunkSize);
+        queueSize.set(cardToBlockRepository.count());
+        return total;
     }
 }
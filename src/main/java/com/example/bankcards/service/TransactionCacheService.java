@@ -1,55 +1,275 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.TransactionDto;
+import com.example.bankcards.entity.CardBalance;
 import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.exception.CardNotFoundException;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.InvalidAmountException;
+import com.example.bankcards.repository.CardBalanceRepository;
 import com.example.bankcards.repository.TransactionRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 public class TransactionCacheService {
 
+    private static final int GENERATION_STRIPES = 1024;
+
     private final TransactionRepository transactionRepository;
-    private final ConcurrentHashMap<Long, Long> cardBalanceCache = new ConcurrentHashMap<>();
+    private final CardBalanceRepository cardBalanceRepository;
+    private final BalanceInvalidationPublisher invalidationPublisher;
+    private final Cache<Long, Long> cardBalanceCache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final Timer balanceHitTimer;
+    private final Timer balanceMissTimer;
+
+    public TransactionCacheService(TransactionRepository transactionRepository,
+                                   CardBalanceRepository cardBalanceRepository,
+                                   BalanceInvalidationPublisher invalidationPublisher,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${application.cache.balance.maximum-size}") long maximumSize,
+                                   @Value("${application.cache.balance.ttl}") Duration ttl) {
+        this.transactionRepository = transactionRepository;
+        this.cardBalanceRepository = cardBalanceRepository;
+        this.invalidationPublisher = invalidationPublisher;
+        this.cardBalanceCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cardBalanceCache, "cardBalance");
+        this.balanceHitTimer = Timer.builder("bank.balance.lookup").tag("result", "hit").register(meterRegistry);
+        this.balanceMissTimer = Timer.builder("bank.balance.lookup").tag("result", "miss").register(meterRegistry);
+    }
 
-    public List<Transaction> findAll(Pageable pageable, Long amountFilter) {
+    public List<TransactionDto> findAll(Pageable pageable, Long amountFilter) {
         return transactionRepository.findAllByAmount(pageable, amountFilter);
     }
 
-    public List<Transaction> findAllByUserId(Long userId, Pageable pageable, Long amountFilter) {
+    public List<TransactionDto> findAllByUserId(Long userId, Pageable pageable, Long amountFilter) {
         return transactionRepository.findAllByUserId(userId, pageable, amountFilter);
     }
 
+    public List<TransactionDto> findAllAfter(Long afterId, Long amountFilter, int limit) {
+        return transactionRepository.findAllByAmountAfter(afterId, amountFilter, PageRequest.of(0, limit));
+    }
 
+    public List<TransactionDto> findAllByUserIdAfter(Long userId, Long afterId, Long amountFilter, int limit) {
+        return transactionRepository.findAllByUserIdAfter(userId, afterId, amountFilter, PageRequest.of(0, limit));
+    }
+
+    @Transactional
     public void save(Transaction tx, Long fromCardId, Long toCardId) {
+        moveFunds(fromCardId, toCardId, tx.getAmount(), false);
         transactionRepository.save(tx);
-        findInDbAndUpdateCache(fromCardId);
-        findInDbAndUpdateCache(toCardId);
+        invalidationPublisher.publish(List.of(fromCardId, toCardId));
+        updateCacheAfterCommit(fromCardId, toCardId);
     }
 
+    @Transactional
     public void save(Transaction tx, Long toCardId) {
+        var atmCardId = tx.getFromCard().getId();
+        moveFunds(atmCardId, toCardId, tx.getAmount(), true);
         transactionRepository.save(tx);
-        findInDbAndUpdateCache(toCardId);
+        invalidationPublisher.publish(List.of(atmCardId, toCardId));
+        updateCacheAfterCommit(toCardId);
+        afterCommit(() -> evict(List.of(atmCardId)));
     }
 
+    /**
+     * Applies the transfers in order within one database transaction and returns, per transfer,
+     * whether it was applied. Balance rows are locked once up front, so a transfer that would
+     * overdraw its card is skipped without affecting the rest of the batch.
+     */
+    @Transactional
+    public boolean[] saveAll(List<Transaction> transactions) {
+        var cardIds = new TreeSet<Long>();
+        for (Transaction tx : transactions) {
+            cardIds.add(tx.getFromCard().getId());
+            cardIds.add(tx.getToCard().getId());
+        }
+        var balances = cardBalanceRepository.findAllByCardIdInOrderByCardId(cardIds).stream()
+                .collect(Collectors.toMap(CardBalance::getCardId, Function.identity()));
+
+        var applied = new boolean[transactions.size()];
+        List<Transaction> accepted = new ArrayList<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            var tx = transactions.get(i);
+            var from = balances.get(tx.getFromCard().getId());
+            var to = balances.get(tx.getToCard().getId());
+            if (from == null || to == null || tx.getAmount() <= 0 || from.getBalance() < tx.getAmount()) {
+                continue;
+            }
+            from.setBalance(from.getBalance() - tx.getAmount());
+            to.setBalance(to.getBalance() + tx.getAmount());
+            accepted.add(tx);
+            applied[i] = true;
+        }
+        transactionRepository.saveAll(accepted);
+
+        invalidationPublisher.publish(cardIds);
+        Map<Long, Long> newBalances = new HashMap<>();
+        balances.forEach((cardId, balance) -> newBalances.put(cardId, balance.getBalance()));
+        afterCommit(() -> cardBalanceCache.putAll(newBalances));
+        return applied;
+    }
+
+    /**
+     * Loads a missing balance outside of a cache compute, which would hold a map monitor during the query and pin
+     * a virtual thread to its carrier. {@code putIfAbsent} keeps a balance written after commit from being
+     * overwritten by a value read before it.
+     */
     public Long getBalanceFromCache(Long cardId) {
-        var balance = cardBalanceCache.get(cardId);
-        return balance != null ? balance : findInDbAndUpdateCache(cardId);
+        var start = System.nanoTime();
+        var balance = cardBalanceCache.getIfPresent(cardId);
+        if (balance != null) {
+            balanceHitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return balance;
+        }
+        var generation = generation(cardId);
+        balance = cacheLoaded(cardId, getBalance(cardId), generation);
+        balanceMissTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return balance;
+    }
+
+    public Map<Long, Long> getBalancesFromCache(Collection<Long> cardIds) {
+        Map<Long, Long> balances = new HashMap<>(cardBalanceCache.getAllPresent(cardIds));
+        var missing = cardIds.stream().filter(cardId -> !balances.containsKey(cardId)).distinct().toList();
+        if (!missing.isEmpty()) {
+            Map<Long, Long> generationsBefore = new HashMap<>();
+            missing.forEach(cardId -> generationsBefore.put(cardId, generation(cardId)));
+            getBalances(missing).forEach((cardId, balance) ->
+                    balances.put(cardId, cacheLoaded(cardId, balance, generationsBefore.get(cardId))));
+        }
+        return balances;
+    }
+
+    public void evict(Collection<Long> cardIds) {
+        for (Long cardId : cardIds) {
+            generations.incrementAndGet(stripeOf(cardId));
+        }
+        cardBalanceCache.invalidateAll(cardIds);
+    }
+
+    public void evictAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cardBalanceCache.invalidateAll();
     }
 
-    private Long findInDbAndUpdateCache(Long cardId) {
-        var balance = getBalance(cardId);
-        cardBalanceCache.put(cardId, balance);
+    /**
+     * Caches a balance read from the database unless an eviction of its stripe ran since {@code generation} was
+     * taken: that eviction may be for a change the read did not see, and the stale value would otherwise be
+     * served until it expires. Evictions bump the generation before invalidating, so one that lands between
+     * the put and the check below either removes the value itself or is seen by the check.
+     */
+    private Long cacheLoaded(Long cardId, Long balance, long generation) {
+        var concurrent = cardBalanceCache.asMap().putIfAbsent(cardId, balance);
+        if (concurrent != null) {
+            return concurrent;
+        }
+        if (generation(cardId) != generation) {
+            cardBalanceCache.asMap().remove(cardId, balance);
+        }
         return balance;
     }
 
+    private long generation(Long cardId) {
+        return generations.get(stripeOf(cardId));
+    }
+
+    private static int stripeOf(Long cardId) {
+        var hash = Long.hashCode(cardId);
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private void moveFunds(Long fromCardId, Long toCardId, Long amount, boolean allowOverdraft) {
+        // The conditional debit only guards the source card: a negative amount would overdraw the destination.
+        if (amount == null || amount <= 0) {
+            throw new InvalidAmountException(amount);
+        }
+        // Balance rows are always locked in ascending card id order, so transfers in opposite
+        // directions between the same cards cannot deadlock each other in the database.
+        if (fromCardId < toCardId) {
+            withdraw(fromCardId, amount, allowOverdraft);
+            credit(toCardId, amount);
+        } else {
+            credit(toCardId, amount);
+            withdraw(fromCardId, amount, allowOverdraft);
+        }
+    }
+
+    private void withdraw(Long cardId, Long amount, boolean allowOverdraft) {
+        if (allowOverdraft) {
+            credit(cardId, -amount);
+        } else if (cardBalanceRepository.withdraw(cardId, amount) == 0) {
+            throw new InsufficientFundsException(cardId);
+        }
+    }
+
+    private void credit(Long cardId, Long amount) {
+        if (cardBalanceRepository.add(cardId, amount) == 0) {
+            throw new CardNotFoundException(cardId);
+        }
+    }
+
     private Long getBalance(Long cardId) {
-        var depositAmount = transactionRepository.countDepositAmount(cardId);
-        var withdrawAmount = transactionRepository.countWithdrawAmount(cardId);
-        return depositAmount - withdrawAmount;
+        return cardBalanceRepository.findBalanceByCardId(cardId).orElse(0L);
+    }
+
+    private Map<Long, Long> getBalances(Collection<? extends Long> cardIds) {
+        Map<Long, Long> balances = new HashMap<>();
+        for (CardBalance balance : cardBalanceRepository.findAllByCardIdIn(List.copyOf(cardIds))) {
+            balances.put(balance.getCardId(), balance.getBalance());
+        }
+        for (Long cardId : cardIds) {
+            balances.putIfAbsent(cardId, 0L);
+        }
+        return balances;
+    }
+
+    private void updateCacheAfterCommit(Long... cardIds) {
+        Map<Long, Long> balances = new HashMap<>();
+        for (Long cardId : cardIds) {
+            balances.put(cardId, getBalance(cardId));
+        }
+        afterCommit(() -> cardBalanceCache.putAll(balances));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
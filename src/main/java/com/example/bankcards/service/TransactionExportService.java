@@ -0,0 +1,105 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransactionDto;
+import com.example.bankcards.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    private static final String CSV_HEADER = "id,fromCard,toCard,amount,login,date\n";
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void exportAll(Long amountFilter, Format format, OutputStream out) throws IOException {
+        try (var rows = transactionRepository.streamAllByAmount(amountFilter)) {
+            write(rows, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportByUserId(Long userId, Long amountFilter, Format format, OutputStream out) throws IOException {
+        try (var rows = transactionRepository.streamAllByUserId(userId, amountFilter)) {
+            write(rows, format, out);
+        }
+    }
+
+    private void write(Stream<TransactionDto> rows, Format format, OutputStream out) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        try {
+            rows.forEach(row -> {
+                try {
+                    if (format == Format.CSV) {
+                        writeCsv(row, writer);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(TransactionDto row, Writer writer) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getFromCard()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getToCard()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getAmount()));
+        writer.write(',');
+        writer.write(escapeCsv(row.getLogin()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getDate()));
+        writer.write('\n');
+    }
+
+    private String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Getter
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+    }
+}
@@ -1,17 +1,30 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.dto.DepositDto;
+import com.example.bankcards.dto.ScrollDto;
 import com.example.bankcards.dto.TransactionDto;
+import com.example.bankcards.dto.TransactionResultDto;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.Transaction;
 import com.example.bankcards.exception.*;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CursorUtil;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -20,8 +33,18 @@ public class TransactionService {
 
     private final CardRepository cardRepository;
     private final TransactionCacheService transactionCacheService;
+    private final CardLocks cardLocks;
+    private final AtmCardRegistry atmCardRegistry;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${application.transaction.batch.max-size}")
+    private int maxBatchSize;
 
     public void createTransaction(TransactionDto dto, Long ownerId) {
+        timed("bank.transfer", () -> transfer(dto, ownerId));
+    }
+
+    private void transfer(TransactionDto dto, Long ownerId) {
         var fromCard = cardRepository.findByIdAndUserId(dto.getFromCard(), ownerId)
                 .orElseThrow(() -> new CardOwnerException(dto.getFromCard(), ownerId));
         var toCard = cardRepository.findByIdAndUserId(dto.getToCard(), ownerId)
@@ -42,15 +65,73 @@ public class TransactionService {
                 .user(fromCard.getUser())
                 .date(LocalDate.now())
                 .build();
-        transactionCacheService.save(transaction, fromCard.getId(), toCard.getId());
+        try (var ignored = cardLocks.lock(fromCard.getId(), toCard.getId())) {
+            transactionCacheService.save(transaction, fromCard.getId(), toCard.getId());
+        }
+    }
+
+    public List<TransactionResultDto> createTransactions(List<TransactionDto> dtos, Long ownerId) {
+        if (dtos.size() > maxBatchSize) {
+            throw new BatchSizeExceededException(dtos.size(), maxBatchSize);
+        }
+        Set<Long> cardIds = new HashSet<>();
+        for (TransactionDto dto : dtos) {
+            if (dto != null && dto.getFromCard() != null && dto.getToCard() != null) {
+                cardIds.add(dto.getFromCard());
+                cardIds.add(dto.getToCard());
+            }
+        }
+        Map<Long, Card> cards = cardRepository.findAllByIdInAndUserId(cardIds, ownerId).stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
+
+        var results = new TransactionResultDto[dtos.size()];
+        List<Integer> indexes = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+        var today = LocalDate.now();
+        for (int i = 0; i < dtos.size(); i++) {
+            var dto = dtos.get(i);
+            var rejection = validate(i, dto, cards, ownerId);
+            if (rejection != null) {
+                results[i] = rejection;
+                continue;
+            }
+            var fromCard = cards.get(dto.getFromCard());
+            indexes.add(i);
+            transactions.add(Transaction.builder()
+                    .fromCard(fromCard)
+                    .toCard(cards.get(dto.getToCard()))
+                    .amount(dto.getAmount())
+                    .user(fromCard.getUser())
+                    .date(today)
+                    .build());
+        }
+
+        if (!transactions.isEmpty()) {
+            boolean[] applied;
+            try (var ignored = cardLocks.lock(cardIds)) {
+                applied = transactionCacheService.saveAll(transactions);
+            }
+            for (int i = 0; i < indexes.size(); i++) {
+                int index = indexes.get(i);
+                var fromCardId = transactions.get(i).getFromCard().getId();
+                results[index] = applied[i]
+                        ? new TransactionResultDto(index, TransactionResultDto.Status.SUCCESS, null)
+                        : new TransactionResultDto(index, TransactionResultDto.Status.INSUFFICIENT_FUNDS,
+                        InsufficientFundsException.MSG.formatted(fromCardId));
+            }
+        }
+        return List.of(results);
     }
 
     public void deposit(DepositDto dto) {
+        timed("bank.deposit", () -> depositToCard(dto));
+    }
+
+    private void depositToCard(DepositDto dto) {
         var toCard = cardRepository.findByIdAndIsAtmFalse(dto.getToCardId())
                 .orElseThrow(() -> new CardNotFoundException(dto.getToCardId()));
         cardIsActive(toCard);
-        var atm = cardRepository.findFirstByIsAtmTrue()
-                .orElseThrow(ATMNotFoundException::new);
+        var atm = cardRepository.getReferenceById(atmCardRegistry.nextAtmCardId());
 
         var transaction = Transaction.builder()
                 .fromCard(atm)
@@ -59,44 +140,101 @@ public class TransactionService {
                 .user(toCard.getUser())
                 .date(LocalDate.now())
                 .build();
-        transactionCacheService.save(transaction, toCard.getId());
+        try (var ignored = cardLocks.lock(toCard.getId())) {
+            transactionCacheService.save(transaction, toCard.getId());
+        }
     }
 
     public Long getBalanceFromCache(Long cardId) {
         return transactionCacheService.getBalanceFromCache(cardId);
     }
 
+    public Map<Long, Long> getBalancesFromCache(Collection<Long> cardIds) {
+        return transactionCacheService.getBalancesFromCache(cardIds);
+    }
+
     public List<TransactionDto> getAllTransactionHistory(Pageable pageable, Long amountFilter) {
-        return transactionCacheService.findAll(pageable, amountFilter).stream()
-                .map(entity -> {
-                    var dto = new TransactionDto();
-                    dto.setFromCard(entity.getFromCard().getId());
-                    dto.setToCard(entity.getToCard().getId());
-                    dto.setAmount(entity.getAmount());
-                    dto.setLogin(entity.getUser().getLogin());
-                    dto.setDate(entity.getDate());
-                    return dto;
-                })
-                .toList();
+        return transactionCacheService.findAll(pageable, amountFilter);
     }
 
     public List<TransactionDto> getTransactionHistoryByUserId(Long userId, Pageable pageable, Long amountFilter) {
-        return transactionCacheService.findAllByUserId(userId, pageable, amountFilter).stream()
-                .map(entity -> {
-                    var dto = new TransactionDto();
-                    dto.setFromCard(entity.getFromCard().getId());
-                    dto.setToCard(entity.getToCard().getId());
-                    dto.setAmount(entity.getAmount());
-                    dto.setLogin(entity.getUser().getLogin());
-                    dto.setDate(entity.getDate());
-                    return dto;
-                })
-                .toList();
+        return transactionCacheService.findAllByUserId(userId, pageable, amountFilter);
+    }
+
+    public ScrollDto<TransactionDto> scrollAllTransactionHistory(String cursor, int size, Long amountFilter) {
+        var rows = transactionCacheService.findAllAfter(CursorUtil.decode(cursor), amountFilter, size + 1);
+        return ScrollDto.of(rows, size, TransactionDto::getId);
+    }
+
+    public ScrollDto<TransactionDto> scrollTransactionHistoryByUserId(Long userId, String cursor, int size,
+                                                                      Long amountFilter) {
+        var rows = transactionCacheService.findAllByUserIdAfter(userId, CursorUtil.decode(cursor), amountFilter, size + 1);
+        return ScrollDto.of(rows, size, TransactionDto::getId);
+    }
+
+    private TransactionResultDto validate(int index, TransactionDto dto, Map<Long, Card> ownedCards, Long ownerId) {
+        if (dto == null || dto.getFromCard() == null || dto.getToCard() == null || dto.getAmount() == null
+                || dto.getFromCard().equals(dto.getToCard())) {
+            return new TransactionResultDto(index, TransactionResultDto.Status.INVALID, null);
+        }
+        if (dto.getAmount() <= 0) {
+            return new TransactionResultDto(index, TransactionResultDto.Status.INVALID,
+                    InvalidAmountException.MSG.formatted(dto.getAmount()));
+        }
+        for (Long cardId : List.of(dto.getFromCard(), dto.getToCard())) {
+            var card = ownedCards.get(cardId);
+            if (card == null) {
+                return new TransactionResultDto(index, TransactionResultDto.Status.CARD_OWNER,
+                        CardOwnerException.MSG.formatted(cardId, ownerId));
+            }
+            if (!isActive(card, LocalDate.now())) {
+                return new TransactionResultDto(index, TransactionResultDto.Status.CARD_NOT_ACTIVE,
+                        CardStatusNotActiveException.MSG.formatted(cardId));
+            }
+        }
+        return null;
+    }
+
+    private void timed(String name, Runnable action) {
+        var start = System.nanoTime();
+        var outcome = "success";
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            meterRegistry.timer(name, "outcome", outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String outcomeOf(RuntimeException e) {
+        if (e instanceof InsufficientFundsException) {
+            return "insufficient_funds";
+        }
+        if (e instanceof InvalidAmountException) {
+            return "invalid_amount";
+        }
+        if (e instanceof CardStatusNotActiveException) {
+            return "inactive_card";
+        }
+        if (e instanceof CardOwnerException || e instanceof CardNotFoundException) {
+            return "card_not_found";
+        }
+        return "error";
     }
 
     private void cardIsActive(Card card) {
-        if (card.getStatus() != Card.Status.ACTIVE) {
+        if (!isActive(card, LocalDate.now())) {
             throw new CardStatusNotActiveException(card.getId());
         }
     }
+
+    /**
+     * A card past its validity period is rejected even while the expiry sweep has not yet marked it EXPIRED.
+     */
+    private static boolean isActive(Card card, LocalDate today) {
+        return card.getStatus() == Card.Status.ACTIVE
+                && (card.getValidityPeriod() == null || !card.getValidityPeriod().isBefore(today));
+    }
 }
@@ -5,7 +5,14 @@ import com.example.bankcards.dto.CardDto;
 public interface CardNumberUtil {
 
     static void hide(CardDto card){
-        var subNumber = card.getNumber().substring(12);
-        card.setNumber("**** **** **** " + subNumber);
+        card.setNumber(mask(lastDigits(card.getNumber())));
+    }
+
+    static String lastDigits(String number) {
+        return number.substring(12);
+    }
+
+    static String mask(String lastDigits) {
+        return "**** **** **** " + lastDigits;
     }
 }
@@ -1,53 +1,177 @@
 package com.example.bankcards.util;
 
 import io.jsonwebtoken.io.Decoders;
-import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.DESKeySpec;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Card numbers are encrypted with AES-GCM under a random IV and stored as {@code v2:base64(iv || ciphertext)}.
+ * Because the ciphertext is no longer deterministic, lookups go through {@link #hash(String)}, a keyed HMAC
+ * of the number. Values without the version prefix were written with DES/ECB and can still be decrypted
+ * until the re-encryption job has rewritten them.
+ * <p>
+ * {@link Cipher} and {@link Mac} instances are not thread-safe, so each call borrows one from a lock-free pool.
+ * The pool grows to the peak number of concurrent callers, which also keeps it cheap with virtual threads,
+ * where an instance per thread would be created and thrown away on every request.
+ */
 @Service
 public class EncryptionUtilService {
 
-    @Value("${application.encryption.key}")
-    private String key;
-    private SecretKey secretKey;
-    private Cipher cipher;
+    public static final String VERSION_PREFIX = "v2:";
 
-    @PostConstruct
-    private void build() throws GeneralSecurityException {
-        byte[] keyBytes = Decoders.BASE64.decode(key);
-        DESKeySpec desKeySpec = new DESKeySpec(keyBytes);
-        SecretKeyFactory keyFactory = SecretKeyFactory.getInstance("DES");
-        secretKey = keyFactory.generateSecret(desKeySpec);
-        cipher = Cipher.getInstance("DES/ECB/PKCS5Padding");
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String LEGACY_TRANSFORMATION = "DES/ECB/PKCS5Padding";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+
+    private final SecretKey secretKey;
+    private final SecretKey legacyKey;
+    private final SecretKey hmacKey;
+    private final SecureRandom random = new SecureRandom();
+    private final Queue<Cipher> ciphers = new ConcurrentLinkedQueue<>();
+    private final Queue<Cipher> legacyEncryptCiphers = new ConcurrentLinkedQueue<>();
+    private final Queue<Cipher> legacyDecryptCiphers = new ConcurrentLinkedQueue<>();
+    private final Queue<Mac> macs = new ConcurrentLinkedQueue<>();
+    private final Timer encryptTimer;
+    private final Timer decryptTimer;
+
+    public EncryptionUtilService(@Value("${application.encryption.key}") String legacyKey,
+                                 @Value("${application.encryption.aes-key}") String aesKey,
+                                 @Value("${application.encryption.hmac-key}") String hmacKey,
+                                 MeterRegistry meterRegistry)
+            throws GeneralSecurityException {
+        DESKeySpec desKeySpec = new DESKeySpec(Decoders.BASE64.decode(legacyKey));
+        this.legacyKey = SecretKeyFactory.getInstance("DES").generateSecret(desKeySpec);
+        this.secretKey = new SecretKeySpec(Decoders.BASE64.decode(aesKey), "AES");
+        this.hmacKey = new SecretKeySpec(Decoders.BASE64.decode(hmacKey), HMAC_ALGORITHM);
+        ciphers.offer(Cipher.getInstance(TRANSFORMATION));
+        macs.offer(newMac());
+        this.encryptTimer = Timer.builder("bank.encryption").tag("operation", "encrypt").register(meterRegistry);
+        this.decryptTimer = Timer.builder("bank.encryption").tag("operation", "decrypt").register(meterRegistry);
     }
 
     public String encrypt(String original) {
+        var start = System.nanoTime();
         try {
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey);
+            var iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            var cipher = borrowCipher();
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH, iv));
             byte[] encryptedData = cipher.doFinal(original.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(encryptedData);
+            ciphers.offer(cipher);
+            var payload = ByteBuffer.allocate(IV_LENGTH + encryptedData.length).put(iv).put(encryptedData).array();
+            return VERSION_PREFIX + Base64.getEncoder().encodeToString(payload);
         } catch (Exception e) {
             throw new RuntimeException("Failed to encrypt", e);
+        } finally {
+            encryptTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     public String decrypt(String cypher) {
+        var start = System.nanoTime();
+        try {
+            return isLegacy(cypher) ? decryptLegacy(cypher) : decryptCurrent(cypher);
+        } finally {
+            decryptTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private String decryptCurrent(String cypher) {
+        try {
+            byte[] payload = Base64.getDecoder().decode(cypher.substring(VERSION_PREFIX.length()));
+            var cipher = borrowCipher();
+            cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH, payload, 0, IV_LENGTH));
+            byte[] decryptedData = cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH);
+            ciphers.offer(cipher);
+            return new String(decryptedData, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to decrypt", e);
+        }
+    }
+
+    public String hash(String number) {
+        var mac = macs.poll();
+        try {
+            if (mac == null) {
+                mac = newMac();
+            }
+            var digest = mac.doFinal(number.getBytes(StandardCharsets.UTF_8));
+            macs.offer(mac);
+            return HexFormat.of().formatHex(digest);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Failed to hash", e);
+        }
+    }
+
+    public boolean isLegacy(String cypher) {
+        return !cypher.startsWith(VERSION_PREFIX);
+    }
+
+    /**
+     * Produces the deterministic DES/ECB ciphertext that rows written before AES-GCM still hold,
+     * so that they can be found by number until they are re-encrypted.
+     */
+    public String encryptLegacy(String original) {
+        try {
+            var cipher = borrowLegacy(legacyEncryptCiphers, Cipher.ENCRYPT_MODE);
+            byte[] encryptedData = cipher.doFinal(original.getBytes(StandardCharsets.UTF_8));
+            legacyEncryptCiphers.offer(cipher);
+            return Base64.getEncoder().encodeToString(encryptedData);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to encrypt", e);
+        }
+    }
+
+    private String decryptLegacy(String cypher) {
         try {
-            cipher.init(Cipher.DECRYPT_MODE, secretKey);
             byte[] encryptedData = Base64.getDecoder().decode(cypher);
+            var cipher = borrowLegacy(legacyDecryptCiphers, Cipher.DECRYPT_MODE);
             byte[] decryptedData = cipher.doFinal(encryptedData);
+            legacyDecryptCiphers.offer(cipher);
             return new String(decryptedData, StandardCharsets.UTF_8);
         } catch (Exception e) {
             throw new RuntimeException("Failed to decrypt", e);
         }
     }
+
+    private Cipher borrowCipher() throws GeneralSecurityException {
+        var cipher = ciphers.poll();
+        return cipher != null ? cipher : Cipher.getInstance(TRANSFORMATION);
+    }
+
+    private Cipher borrowLegacy(Queue<Cipher> pool, int mode) throws GeneralSecurityException {
+        var cipher = pool.poll();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(LEGACY_TRANSFORMATION);
+            cipher.init(mode, legacyKey);
+        }
+        return cipher;
+    }
+
+    private Mac newMac() throws GeneralSecurityException {
+        var mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(hmacKey);
+        return mac;
+    }
 }
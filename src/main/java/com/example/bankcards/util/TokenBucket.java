@@ -0,0 +1,41 @@
+package com.example.bankcards.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket. The whole state is a single timestamp, the moment the next token becomes free
+ * (the generic cell rate algorithm), so an acquire is one CAS on an {@link AtomicLong}.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final AtomicLong nextFree = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(int capacity, Duration refillPeriod) {
+        this(capacity, refillPeriod, System::nanoTime);
+    }
+
+    TokenBucket(int capacity, Duration refillPeriod, LongSupplier clock) {
+        this.intervalNanos = Math.max(1, refillPeriod.toNanos() / capacity);
+        this.burstNanos = (capacity - 1) * intervalNanos;
+        this.clock = clock;
+    }
+
+    public boolean tryAcquire() {
+        var now = clock.getAsLong();
+        while (true) {
+            var current = nextFree.get();
+            var start = Math.max(current, now);
+            if (start - now > burstNanos) {
+                return false;
+            }
+            if (nextFree.compareAndSet(current, start + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS bank.card_balances (
+    card_id           bigint PRIMARY KEY REFERENCES bank.cards(id) ON DELETE CASCADE,
+    balance           bigint NOT NULL DEFAULT 0
+);
+
+INSERT INTO bank.card_balances (card_id, balance)
+SELECT c.id,
+       COALESCE((SELECT sum(t.amount) FROM bank.transactions t WHERE t.to_card = c.id), 0)
+     - COALESCE((SELECT sum(t.amount) FROM bank.transactions t WHERE t.from_card = c.id), 0)
+FROM bank.cards c
+ON CONFLICT (card_id) DO NOTHING;
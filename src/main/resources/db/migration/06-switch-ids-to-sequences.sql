@@ -0,0 +1,23 @@
+CREATE SEQUENCE IF NOT EXISTS bank.users_seq INCREMENT BY 50;
+SELECT setval('bank.users_seq', COALESCE((SELECT max(id) FROM bank.users), 0) + 1, false);
+ALTER TABLE bank.users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bank.users ALTER COLUMN id SET DEFAULT nextval('bank.users_seq');
+ALTER SEQUENCE bank.users_seq OWNED BY bank.users.id;
+
+CREATE SEQUENCE IF NOT EXISTS bank.cards_seq INCREMENT BY 50;
+SELECT setval('bank.cards_seq', COALESCE((SELECT max(id) FROM bank.cards), 0) + 1, false);
+ALTER TABLE bank.cards ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bank.cards ALTER COLUMN id SET DEFAULT nextval('bank.cards_seq');
+ALTER SEQUENCE bank.cards_seq OWNED BY bank.cards.id;
+
+CREATE SEQUENCE IF NOT EXISTS bank.cards_to_block_seq INCREMENT BY 50;
+SELECT setval('bank.cards_to_block_seq', COALESCE((SELECT max(id) FROM bank.cards_to_block), 0) + 1, false);
+ALTER TABLE bank.cards_to_block ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bank.cards_to_block ALTER COLUMN id SET DEFAULT nextval('bank.cards_to_block_seq');
+ALTER SEQUENCE bank.cards_to_block_seq OWNED BY bank.cards_to_block.id;
+
+CREATE SEQUENCE IF NOT EXISTS bank.transactions_seq INCREMENT BY 50;
+SELECT setval('bank.transactions_seq', COALESCE((SELECT max(id) FROM bank.transactions), 0) + 1, false);
+ALTER TABLE bank.transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bank.transactions ALTER COLUMN id SET DEFAULT nextval('bank.transactions_seq');
+ALTER SEQUENCE bank.transactions_seq OWNED BY bank.transactions.id;
@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS transactions_user_id_id_idx ON bank.transactions (user_id, id);
+CREATE INDEX IF NOT EXISTS cards_status_id_not_atm_idx ON bank.cards (status, id) WHERE is_atm = false;
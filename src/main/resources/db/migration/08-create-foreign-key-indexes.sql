@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS transactions_to_card_idx ON bank.transactions (to_card) INCLUDE (amount);
+CREATE INDEX IF NOT EXISTS transactions_from_card_idx ON bank.transactions (from_card) INCLUDE (amount);
+CREATE INDEX IF NOT EXISTS cards_user_id_idx ON bank.cards (user_id);
@@ -0,0 +1,3 @@
+ALTER TABLE bank.cards ALTER COLUMN number TYPE varchar(128);
+ALTER TABLE bank.cards ADD COLUMN IF NOT EXISTS number_hash varchar(64);
+CREATE UNIQUE INDEX IF NOT EXISTS cards_number_hash_idx ON bank.cards (number_hash);
@@ -0,0 +1 @@
+ALTER TABLE bank.cards ADD COLUMN IF NOT EXISTS number_last4 varchar(4);
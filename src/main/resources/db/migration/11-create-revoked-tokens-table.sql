@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS bank.revoked_tokens (
+    jti               varchar(36) PRIMARY KEY,
+    expires_at        timestamptz NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS revoked_tokens_expires_at_idx ON bank.revoked_tokens (expires_at);
@@ -0,0 +1,6 @@
+DELETE FROM bank.cards_to_block duplicate
+USING bank.cards_to_block original
+WHERE duplicate.card_id = original.card_id
+  AND duplicate.id > original.id;
+
+ALTER TABLE bank.cards_to_block ADD CONSTRAINT cards_to_block_card_id_key UNIQUE (card_id);
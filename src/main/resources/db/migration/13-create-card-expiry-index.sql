@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS cards_active_validity_period_idx ON bank.cards (validity_period) WHERE status = 'ACTIVE';
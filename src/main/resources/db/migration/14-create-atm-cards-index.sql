@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS cards_atm_idx ON bank.cards (id) WHERE is_atm;
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS bank.balance_snapshots (
+    card_id           bigint PRIMARY KEY REFERENCES bank.cards(id) ON DELETE CASCADE,
+    balance           bigint NOT NULL,
+    as_of             date   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS transactions_to_card_date_idx ON bank.transactions (to_card, transaction_date) INCLUDE (amount);
+CREATE INDEX IF NOT EXISTS transactions_from_card_date_idx ON bank.transactions (from_card, transaction_date) INCLUDE (amount);
+DROP INDEX IF EXISTS bank.transactions_to_card_idx;
+DROP INDEX IF EXISTS bank.transactions_from_card_idx;
@@ -0,0 +1,108 @@
+package com.example.bankcards;
+
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.service.JwtService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Closed-loop HTTP load against the same endpoint with Tomcat on platform threads and on virtual threads.
+ * There are more clients than platform request threads, so in the platform mode requests queue in Tomcat.
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class WebThreadModeBenchmarkTest {
+
+    private static final int CLIENTS = 400;
+    private static final int WARMUP_REQUESTS = 5_000;
+    private static final int REQUESTS = 50_000;
+
+    @Test
+    void p99_latency_and_throughput_platform_vs_virtual_threads() throws Exception {
+        var platform = run(false);
+        var virtual = run(true);
+
+        print("platform threads", platform);
+        print("virtual threads", virtual);
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        var postgres = AbstractPostgresTest.POSTGRES;
+        // Command-line arguments, unlike default properties, take precedence over application.yml.
+        try (var context = new SpringApplicationBuilder(BankCardsApp.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.org.springframework.security=INFO");
+             var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            var user = context.getBean(UserRepository.class).findByLogin("user").orElseThrow();
+            var token = context.getBean(JwtService.class).generateToken(user);
+            var port = context.getEnvironment().getProperty("local.server.port");
+            var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/cards/" + user.getId()))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+            fire(client, request, WARMUP_REQUESTS);
+            return fire(client, request, REQUESTS);
+        }
+    }
+
+    private Result fire(HttpClient client, HttpRequest request, int requests) {
+        var latencies = new long[requests];
+        var next = new AtomicInteger();
+        var errors = new AtomicInteger();
+        var start = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        var sent = System.nanoTime();
+                        try {
+                            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - sent;
+                    }
+                    return null;
+                });
+            }
+        }
+        var elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Result(
+                requests * 1e9 / elapsed,
+                latencies[requests / 2] / 1e6,
+                latencies[(int) (requests * 0.99)] / 1e6,
+                errors.get());
+    }
+
+    private void print(String mode, Result result) {
+        System.out.printf("%s: %.0f req/s, p50 %.1f ms, p99 %.1f ms, errors %d%n",
+                mode, result.throughput(), result.p50Millis(), result.p99Millis(), result.errors());
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis, int errors) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.RebuildInProgressException;
+import com.example.bankcards.security.config.JwtAuthFilter;
+import com.example.bankcards.security.config.SecurityConfig;
+import com.example.bankcards.service.BalanceSnapshotService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BalanceSnapshotController.class)
+@Import(SecurityConfig.class)
+public class BalanceSnapshotControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private JwtAuthFilter jwtAuthFilter;
+
+    @MockitoBean
+    private BalanceSnapshotService balanceSnapshotService;
+
+    private User admin = User.builder().id(1L).role(User.Role.ADMIN).build();
+    private User user = User.builder().id(1L).role(User.Role.USER).build();
+
+    private Authentication authAdmin = new UsernamePasswordAuthenticationToken(
+            admin, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    private Authentication authUser = new UsernamePasswordAuthenticationToken(
+            user, null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    @BeforeEach
+    void openSecurityFilterChain() throws Exception {
+        Mockito.doAnswer(invocation -> {
+                    HttpServletRequest req   = invocation.getArgument(0);
+                    HttpServletResponse res   = invocation.getArgument(1);
+                    FilterChain chain = invocation.getArgument(2);
+                    chain.doFilter(req, res);
+                    return null;
+                }).when(jwtAuthFilter)
+                .doFilter(Mockito.any(HttpServletRequest.class),
+                        Mockito.any(HttpServletResponse.class),
+                        Mockito.any(FilterChain.class));
+    }
+
+    @Test
+    void rebuild_AsAdmin_shouldReturnAccepted() throws Exception {
+        mockMvc.perform(post("/balance_snapshots/rebuild")
+                        .with(authentication(authAdmin)))
+                .andExpect(status().isAccepted());
+
+        Mockito.verify(balanceSnapshotService).requestRebuild();
+    }
+
+    @Test
+    void rebuild_WhenAlreadyRunning_shouldReturnConflict() throws Exception {
+        Mockito.doThrow(new RebuildInProgressException()).when(balanceSnapshotService).requestRebuild();
+
+        mockMvc.perform(post("/balance_snapshots/rebuild")
+                        .with(authentication(authAdmin)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void rebuild_AsUser_shouldReturnForbidden() throws Exception {
+        mockMvc.perform(post("/balance_snapshots/rebuild")
+                        .with(authentication(authUser)))
+                .andExpect(status().isForbidden());
+
+        Mockito.verify(balanceSnapshotService, Mockito.times(0)).requestRebuild();
+    }
+}
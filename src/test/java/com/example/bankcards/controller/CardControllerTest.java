@@ -1,6 +1,7 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardNumberDto;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.security.config.JwtAuthFilter;
@@ -240,4 +241,26 @@ class CardControllerTest {
         Mockito.verify(cardService, Mockito.times(0))
                 .deleteCard(card.getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void revealNumber_AsAdmin_shouldReturnNumber() throws Exception {
+        Mockito.when(cardService.revealNumber(card.getId()))
+                .thenReturn(new CardNumberDto(card.getId(), card.getNumber()));
+
+        mockMvc.perform(get("/cards/1/number")
+                        .with(authentication(authAdmin))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.number").value(card.getNumber()));
+    }
+
+    @Test
+    void revealNumber_AsUser_shouldReturnForbidden() throws Exception {
+        mockMvc.perform(get("/cards/1/number")
+                        .with(authentication(authUser)))
+                .andExpect(status().isForbidden());
+
+        Mockito.verify(cardService, Mockito.times(0))
+                .revealNumber(Mockito.any());
+    }
+}
@@ -99,25 +99,25 @@ public class CardToBlockControllerTest {
     }
 
     @Test
-    void blockCard_AsAdmin_shouldReturnOk() throws Exception {
-        Mockito.doNothing().when(cardToBlockService).blockCards();
+    void blockCard_AsAdmin_shouldReturnAccepted() throws Exception {
+        Mockito.doNothing().when(cardToBlockService).requestBlock();
 
-        mockMvc.perform(get("/card_to_block/block")
+        mockMvc.perform(post("/card_to_block/block")
                         .with(authentication(authAdmin)))
-                .andExpect(status().isOk());
+                .andExpect(status().isAccepted());
 
-        Mockito.verify(cardToBlockService).blockCards();
+        Mockito.verify(cardToBlockService).requestBlock();
     }
 
     @Test
     void blockCard_AsUser_shouldReturnForbidden() throws Exception {
-        Mockito.doNothing().when(cardToBlockService).blockCards();
+        Mockito.doNothing().when(cardToBlockService).requestBlock();
 
-        mockMvc.perform(get("/card_to_block/block")
+        mockMvc.perform(post("/card_to_block/block")
                         .with(authentication(authUser)))
                 .andExpect(status().isForbidden());
 
-        Mockito.verify(cardToBlockService, Mockito.times(0)).blockCards();
+        Mockito.verify(cardToBlockService, Mockito.times(0)).requestBlock();
     }
 
 }
@@ -1,10 +1,13 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.DepositDto;
+import com.example.bankcards.dto.ScrollDto;
 import com.example.bankcards.dto.TransactionDto;
+import com.example.bankcards.dto.TransactionResultDto;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.security.config.JwtAuthFilter;
 import com.example.bankcards.security.config.SecurityConfig;
+import com.example.bankcards.service.TransactionExportService;
 import com.example.bankcards.service.TransactionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
@@ -29,6 +32,8 @@ import java.util.List;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(TransactionController.class)
@@ -50,6 +55,9 @@ class TransactionControllerTest {
     @MockitoBean
     private TransactionService transactionService;
 
+    @MockitoBean
+    private TransactionExportService transactionExportService;
+
     private User admin = User.builder().id(1L).role(User.Role.ADMIN).build();
     private User user = User.builder().id(1L).role(User.Role.USER).build();
 
@@ -120,6 +128,53 @@ class TransactionControllerTest {
                 .createTransaction(Mockito.any(TransactionDto.class), Mockito.eq(1L));
     }
 
+    @Test
+    void createTransaction_NegativeAmount_shouldReturnBadRequest() throws Exception {
+        var transactionDto = new TransactionDto();
+        transactionDto.setFromCard(1L);
+        transactionDto.setToCard(2L);
+        transactionDto.setAmount(-1000L);
+
+        var body = objectMapper.writeValueAsString(transactionDto);
+
+        mockMvc.perform(post("/transaction")
+                        .with(authentication(authUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(transactionService, Mockito.times(0))
+                .createTransaction(Mockito.any(TransactionDto.class), Mockito.anyLong());
+    }
+
+    @Test
+    void createTransactions_AsOwner_shouldReturnResultPerItem() throws Exception {
+        var transactionDto = new TransactionDto();
+        transactionDto.setFromCard(1L);
+        transactionDto.setToCard(2L);
+        transactionDto.setAmount(1000L);
+
+        Mockito.when(transactionService.createTransactions(Mockito.anyList(), Mockito.eq(1L)))
+                .thenReturn(List.of(
+                        new TransactionResultDto(0, TransactionResultDto.Status.SUCCESS, null),
+                        new TransactionResultDto(1, TransactionResultDto.Status.INSUFFICIENT_FUNDS, "msg")));
+
+        var body = objectMapper.writeValueAsString(List.of(transactionDto, transactionDto));
+
+        mockMvc.perform(post("/transaction/batch")
+                        .with(authentication(authUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("SUCCESS"))
+                .andExpect(jsonPath("$[1].status").value("INSUFFICIENT_FUNDS"));
+
+        Mockito.verify(transactionService)
+                .createTransactions(Mockito.anyList(), Mockito.eq(1L));
+    }
+
     @Test
     void deposit_AsAdmin_shouldReturnOk() throws Exception {
         var depositDto = new DepositDto();
@@ -166,6 +221,25 @@ class TransactionControllerTest {
                 .deposit(Mockito.any(DepositDto.class));
     }
 
+    @Test
+    void deposit_ZeroAmount_shouldReturnBadRequest() throws Exception {
+        var depositDto = new DepositDto();
+        depositDto.setToCardId(1L);
+        depositDto.setAmount(0L);
+
+        var body = objectMapper.writeValueAsString(depositDto);
+
+        mockMvc.perform(post("/deposit")
+                        .with(authentication(authUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(transactionService, Mockito.times(0))
+                .deposit(Mockito.any(DepositDto.class));
+    }
+
     @Test
     void getTransactionHistory_AsAdmin_shouldReturnOk() throws Exception {
         var transactionDto = new TransactionDto();
@@ -225,4 +299,44 @@ class TransactionControllerTest {
         Mockito.verify(transactionService)
                 .getTransactionHistoryByUserId(Mockito.eq(1L), Mockito.any(Pageable.class), Mockito.eq(1L));
     }
+
+    @Test
+    void scrollTransactionHistory_AsUser_shouldReturnOwnPage() throws Exception {
+        var transactionDto = new TransactionDto();
+        transactionDto.setId(5L);
+        transactionDto.setFromCard(1L);
+        transactionDto.setToCard(2L);
+        transactionDto.setAmount(1000L);
+
+        Mockito
+                .when(transactionService.scrollTransactionHistoryByUserId(1L, "abc", 1, null))
+                .thenReturn(new ScrollDto<>(List.of(transactionDto), "next"));
+
+        mockMvc.perform(get("/transaction_history/scroll")
+                        .with(authentication(authUser))
+                        .param("cursor", "abc")
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(5))
+                .andExpect(jsonPath("$.next").value("next"));
+
+        Mockito.verify(transactionService, Mockito.times(0))
+                .scrollAllTransactionHistory(Mockito.any(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    void exportTransactionHistory_AsUser_shouldExportOwnTransactions() throws Exception {
+        mockMvc.perform(get("/transaction_history/export")
+                        .with(authentication(authUser))
+                        .param("format", "CSV")
+                        .param("amountFilter", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"));
+
+        Mockito.verify(transactionExportService)
+                .exportByUserId(Mockito.eq(1L), Mockito.eq(1L), Mockito.eq(TransactionExportService.Format.CSV), Mockito.any());
+        Mockito.verify(transactionExportService, Mockito.times(0))
+                .exportAll(Mockito.any(), Mockito.any(), Mockito.any());
+    }
 }
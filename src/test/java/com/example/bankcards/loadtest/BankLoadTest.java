@@ -0,0 +1,261 @@
+package com.example.bankcards.loadtest;
+
+import com.example.bankcards.BankCardsApp;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.DepositDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.service.JwtService;
+import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.TransactionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * End-to-end load on the HTTP API with a scripted request mix, run against the Testcontainers Postgres or,
+ * with {@code -Dloadtest.datasource.url}, against the database from {@code docker-compose.yml}.
+ * Transfers only move money between cards of the same user, so after the run the balances of the test users'
+ * cards must add up to what was deposited, and no card may be overdrawn.
+ */
+@Tag("benchmark")
+class BankLoadTest {
+
+    private static final String PASSWORD = "load-test";
+    private static final int CARDS_PER_USER = 2;
+    private static final long INITIAL_BALANCE = 10_000L;
+    private static final long DEPOSIT_AMOUNT = 100L;
+    private static final long MAX_TRANSFER_AMOUNT = 500L;
+
+    private final Workload workload = Workload.named(System.getProperty("loadtest.workload", "read-mostly"));
+    private final int users = Integer.getInteger("loadtest.users", 200);
+    private final int clients = Integer.getInteger("loadtest.clients", 200);
+    private final int warmupRequests = Integer.getInteger("loadtest.warmup-requests", 5_000);
+    private final int requests = Integer.getInteger("loadtest.requests", 50_000);
+    private final long seed = Long.getLong("loadtest.seed", 42L);
+    private final String externalUrl = System.getProperty("loadtest.datasource.url");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong deposited = new AtomicLong();
+
+    private HttpClient client;
+    private String baseUrl;
+    private String adminToken;
+    private List<LoadUser> loadUsers;
+
+    @Test
+    void mixed_workload_keeps_balances_consistent() throws Exception {
+        // Docker is only needed for the Testcontainers Postgres, not for an external database.
+        assumeTrue(externalUrl != null || DockerClientFactory.instance().isDockerAvailable(),
+                "Docker is not available and -Dloadtest.datasource.url is not set");
+        try (var postgres = externalUrl == null ? startPostgres() : null;
+             var context = new SpringApplicationBuilder(BankCardsApp.class).run(arguments(postgres));
+             var httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            client = httpClient;
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            var loginPrefix = "load-" + UUID.randomUUID() + "-";
+            setUp(context, loginPrefix);
+
+            fire(warmupRequests, seed - 1);
+            var start = System.nanoTime();
+            var recorder = fire(requests, seed);
+            recorder.print(workload.name(), System.nanoTime() - start);
+
+            var jdbc = context.getBean(JdbcTemplate.class);
+            assertEquals(0, recorder.errors());
+            assertEquals(0L, jdbc.queryForObject("""
+                    select count(*) from bank.card_balances b
+                    join bank.cards c on c.id = b.card_id
+                    where not c.is_atm and b.balance < 0""", Long.class));
+            assertEquals(deposited.get(), jdbc.queryForObject("""
+                    select coalesce(sum(b.balance), 0) from bank.card_balances b
+                    join bank.cards c on c.id = b.card_id
+                    join bank.users u on u.id = c.user_id
+                    where u.login like ?""", Long.class, loginPrefix + "%"));
+        }
+    }
+
+    private static PostgreSQLContainer<?> startPostgres() {
+        var postgres = new PostgreSQLContainer<>("postgres:15.3-alpine");
+        postgres.start();
+        return postgres;
+    }
+
+    private String[] arguments(PostgreSQLContainer<?> postgres) {
+        var url = externalUrl;
+        var username = System.getProperty("loadtest.datasource.username", "postgres");
+        var password = System.getProperty("loadtest.datasource.password", "postgres");
+        if (postgres != null) {
+            url = postgres.getJdbcUrl();
+            username = postgres.getUsername();
+            password = postgres.getPassword();
+        }
+        // All requests come from one address and a few logins, so the authentication rate limits are lifted.
+        return new String[]{
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                "--application.security.rate-limit.login.capacity=1000000",
+                "--application.security.rate-limit.ip.capacity=1000000"
+        };
+    }
+
+    private void setUp(ConfigurableApplicationContext context, String loginPrefix) {
+        var userRepository = context.getBean(UserRepository.class);
+        var cardService = context.getBean(CardService.class);
+        var transactionService = context.getBean(TransactionService.class);
+        var jwtService = context.getBean(JwtService.class);
+        var passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+
+        adminToken = jwtService.generateToken(userRepository.findByLogin("admin").orElseThrow());
+        loadUsers = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            var user = userRepository.save(User.builder()
+                    .login(loginPrefix + i)
+                    .password(passwordHash)
+                    .role(User.Role.USER)
+                    .build());
+            var cardIds = new long[CARDS_PER_USER];
+            for (int c = 0; c < CARDS_PER_USER; c++) {
+                cardIds[c] = cardService.createCard(CardDto.builder()
+                        .number(randomCardNumber())
+                        .ownerId(user.getId())
+                        .status(Card.Status.ACTIVE)
+                        .build()).getId();
+                var deposit = new DepositDto();
+                deposit.setToCardId(cardIds[c]);
+                deposit.setAmount(INITIAL_BALANCE);
+                transactionService.deposit(deposit);
+                deposited.addAndGet(INITIAL_BALANCE);
+            }
+            loadUsers.add(new LoadUser(user.getId(), user.getLogin(), jwtService.generateToken(user), cardIds));
+        }
+    }
+
+    private LatencyRecorder fire(int requests, long seed) {
+        var next = new AtomicInteger();
+        var recorders = new ArrayList<LatencyRecorder>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                var recorder = new LatencyRecorder();
+                var random = new Random(seed * 31 + c);
+                recorders.add(recorder);
+                executor.submit(() -> {
+                    while (next.getAndIncrement() < requests) {
+                        var operation = workload.nextOperation(random);
+                        var user = loadUsers.get(workload.nextUser(random, loadUsers.size()));
+                        var sent = System.nanoTime();
+                        var outcome = execute(operation, user, random);
+                        recorder.record(operation, System.nanoTime() - sent, outcome);
+                    }
+                    return null;
+                });
+            }
+        }
+        var merged = new LatencyRecorder();
+        recorders.forEach(merged::merge);
+        return merged;
+    }
+
+    private LatencyRecorder.Outcome execute(Workload.Operation operation, LoadUser user, Random random) {
+        try {
+            return switch (operation) {
+                case AUTHENTICATE -> {
+                    var status = send(post("/auth/authenticate", null,
+                            Map.of("login", user.login(), "password", PASSWORD)));
+                    yield outcome(status, status == 429);
+                }
+                case TRANSFER -> {
+                    var from = random.nextInt(CARDS_PER_USER);
+                    var to = (from + 1 + random.nextInt(CARDS_PER_USER - 1)) % CARDS_PER_USER;
+                    var status = send(post("/transaction", user.token(), Map.of(
+                            "fromCard", user.cardIds()[from],
+                            "toCard", user.cardIds()[to],
+                            "amount", 1 + random.nextLong(MAX_TRANSFER_AMOUNT))));
+                    // 400 is an insufficient-funds rejection, expected on the hot cards.
+                    yield outcome(status, status == 400);
+                }
+                case DEPOSIT -> {
+                    var status = send(post("/deposit", user.token(), Map.of(
+                            "toCardId", user.cardIds()[random.nextInt(CARDS_PER_USER)],
+                            "amount", DEPOSIT_AMOUNT)));
+                    if (status == 200) {
+                        deposited.addAndGet(DEPOSIT_AMOUNT);
+                    }
+                    yield outcome(status, false);
+                }
+                case TRANSACTION_HISTORY -> outcome(send(get("/transaction_history?page=1&size=20", user.token())), false);
+                case USER_CARDS -> outcome(send(get("/cards/" + user.id(), user.token())), false);
+                case ALL_CARDS -> outcome(send(get("/cards?page=1&size=20", adminToken)), false);
+            };
+        } catch (IOException e) {
+            return LatencyRecorder.Outcome.ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return LatencyRecorder.Outcome.ERROR;
+        }
+    }
+
+    private static LatencyRecorder.Outcome outcome(int status, boolean rejected) {
+        if (status == 200) {
+            return LatencyRecorder.Outcome.OK;
+        }
+        return rejected ? LatencyRecorder.Outcome.REJECTED : LatencyRecorder.Outcome.ERROR;
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String token, Map<String, Object> body) throws JsonProcessingException {
+        var builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static String randomCardNumber() {
+        return String.valueOf(ThreadLocalRandom.current().nextLong(1_000_000_000_000_000L, 10_000_000_000_000_000L));
+    }
+
+    private record LoadUser(long id, String login, String token, long[] cardIds) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bankcards.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Latencies and outcomes per operation. Each client records into its own instance, which are merged after the run.
+ */
+class LatencyRecorder {
+
+    enum Outcome {OK, REJECTED, ERROR}
+
+    private final Map<Workload.Operation, Samples> samples = new EnumMap<>(Workload.Operation.class);
+
+    void record(Workload.Operation operation, long nanos, Outcome outcome) {
+        samples.computeIfAbsent(operation, o -> new Samples()).add(nanos, outcome);
+    }
+
+    void merge(LatencyRecorder other) {
+        other.samples.forEach((operation, s) -> samples.computeIfAbsent(operation, o -> new Samples()).addAll(s));
+    }
+
+    long errors() {
+        return samples.values().stream().mapToLong(s -> s.errors).sum();
+    }
+
+    void print(String title, long elapsedNanos) {
+        var all = new Samples();
+        samples.values().forEach(all::addAll);
+        var seconds = elapsedNanos / 1e9;
+        System.out.printf("%s: %d requests in %.1f s%n", title, all.size, seconds);
+        System.out.printf("%-26s %8s %9s %8s %8s %8s %9s %7s%n",
+                "endpoint", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "rejected", "errors");
+        samples.forEach((operation, s) -> print(operation.endpoint, s, seconds));
+        print("total", all, seconds);
+    }
+
+    private void print(String name, Samples s, double seconds) {
+        var sorted = Arrays.copyOf(s.latencies, s.size);
+        Arrays.sort(sorted);
+        System.out.printf("%-26s %8d %9.0f %8.1f %8.1f %8.1f %9d %7d%n",
+                name, s.size, s.size / seconds,
+                percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                s.rejected, s.errors);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        var index = Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1);
+        return sorted[index] / 1e6;
+    }
+
+    private static class Samples {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long rejected;
+        private long errors;
+
+        void add(long nanos, Outcome outcome) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+            if (outcome == Outcome.REJECTED) {
+                rejected++;
+            } else if (outcome == Outcome.ERROR) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, size + other.size));
+            }
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            rejected += other.rejected;
+            errors += other.errors;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bankcards.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Scripted request mix: the weight of each operation and how much of the traffic goes to the cards
+ * of a small set of hot users.
+ */
+record Workload(String name, Map<Operation, Integer> weights, double hotUsers, double hotTraffic) {
+
+    static final Workload READ_MOSTLY = new Workload("read-mostly", Map.of(
+            Operation.TRANSACTION_HISTORY, 42,
+            Operation.USER_CARDS, 42,
+            Operation.ALL_CARDS, 4,
+            Operation.AUTHENTICATE, 1,
+            Operation.DEPOSIT, 1,
+            Operation.TRANSFER, 10), 0.05, 0.8);
+
+    static final Workload TRANSFER_HEAVY = new Workload("transfer-heavy", Map.of(
+            Operation.TRANSACTION_HISTORY, 25,
+            Operation.USER_CARDS, 25,
+            Operation.AUTHENTICATE, 1,
+            Operation.DEPOSIT, 4,
+            Operation.TRANSFER, 45), 0.05, 0.8);
+
+    static Workload named(String name) {
+        return Arrays.stream(new Workload[]{READ_MOSTLY, TRANSFER_HEAVY})
+                .filter(workload -> workload.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown workload " + name));
+    }
+
+    Operation nextOperation(Random random) {
+        var total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        var roll = random.nextInt(total);
+        for (Operation operation : Operation.values()) {
+            roll -= weights.getOrDefault(operation, 0);
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    int nextUser(Random random, int users) {
+        var hot = Math.max(1, (int) (users * hotUsers));
+        return random.nextDouble() < hotTraffic ? random.nextInt(hot) : random.nextInt(users);
+    }
+
+    enum Operation {
+        AUTHENTICATE("POST /auth/authenticate"),
+        TRANSFER("POST /transaction"),
+        DEPOSIT("POST /deposit"),
+        TRANSACTION_HISTORY("GET /transaction_history"),
+        USER_CARDS("GET /cards/{userId}"),
+        ALL_CARDS("GET /cards");
+
+        final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+}
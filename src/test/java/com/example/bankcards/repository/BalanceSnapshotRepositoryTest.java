@@ -0,0 +1,123 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.AbstractPostgresTest;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.DepositDto;
+import com.example.bankcards.dto.TransactionDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BalanceSnapshotRepositoryTest extends AbstractPostgresTest {
+
+    private static final LocalDate AS_OF = LocalDate.now().minusDays(1);
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+    @Autowired
+    private CardBalanceRepository cardBalanceRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private Long first;
+    private Long second;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = userRepository.save(User.builder()
+                .login("snapshot-" + UUID.randomUUID())
+                .password("password")
+                .role(User.Role.USER)
+                .build()).getId();
+        first = createCard();
+        second = createCard();
+        deposit(first, 1000L);
+        transfer(first, second, 300L);
+        jdbcTemplate.update("update bank.transactions set transaction_date = current_date - 10 " +
+                "where to_card in (?, ?)", first, second);
+    }
+
+    @Test
+    void advance_snapshots_history_before_as_of() {
+        deposit(first, 50L);
+
+        assertEquals(2, balanceSnapshotRepository.advance(List.of(first, second), AS_OF));
+        assertEquals(0, balanceSnapshotRepository.advance(List.of(first, second), AS_OF));
+
+        var snapshot = balanceSnapshotRepository.findById(first).orElseThrow();
+        assertEquals(700L, snapshot.getBalance());
+        assertEquals(AS_OF, snapshot.getAsOf());
+        assertEquals(300L, balanceSnapshotRepository.findById(second).orElseThrow().getBalance());
+    }
+
+    @Test
+    void drift_is_snapshot_plus_transactions_since() {
+        balanceSnapshotRepository.advance(List.of(first, second), AS_OF);
+        deposit(first, 50L);
+        transfer(second, first, 100L);
+
+        assertTrue(cardBalanceRepository.findDrift(List.of(first, second)).isEmpty());
+
+        cardBalanceRepository.add(first, 5L);
+        var drifts = cardBalanceRepository.findDrift(List.of(first, second));
+        assertEquals(1, drifts.size());
+        assertEquals(first, drifts.get(0).getId());
+        assertEquals(855L, drifts.get(0).getStored());
+        assertEquals(850L, drifts.get(0).getActual());
+    }
+
+    @Test
+    void rebuild_replaces_snapshot_from_whole_history() {
+        balanceSnapshotRepository.advance(List.of(first, second), AS_OF);
+        jdbcTemplate.update("update bank.balance_snapshots set balance = 0 where card_id = ?", first);
+
+        assertEquals(2, balanceSnapshotRepository.rebuild(List.of(first, second), AS_OF));
+
+        assertEquals(700L, balanceSnapshotRepository.findById(first).orElseThrow().getBalance());
+        assertTrue(cardBalanceRepository.findDrift(List.of(first, second)).isEmpty());
+    }
+
+    private void deposit(Long cardId, Long amount) {
+        var dto = new DepositDto();
+        dto.setToCardId(cardId);
+        dto.setAmount(amount);
+        transactionService.deposit(dto);
+    }
+
+    private void transfer(Long fromCard, Long toCard, Long amount) {
+        var dto = new TransactionDto();
+        dto.setFromCard(fromCard);
+        dto.setToCard(toCard);
+        dto.setAmount(amount);
+        transactionService.createTransaction(dto, ownerId);
+    }
+
+    private Long createCard() {
+        var number = String.valueOf(ThreadLocalRandom.current().nextLong(1_000_000_000_000_000L, 9_999_999_999_999_999L));
+        return cardService.createCard(CardDto.builder()
+                .number(number)
+                .ownerId(ownerId)
+                .status(Card.Status.ACTIVE)
+                .build()).getId();
+    }
+}
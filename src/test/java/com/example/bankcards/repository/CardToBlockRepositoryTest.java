@@ -0,0 +1,99 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.AbstractPostgresTest;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.service.CardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CardToBlockRepositoryTest extends AbstractPostgresTest {
+
+    @Autowired
+    private CardToBlockRepository cardToBlockRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        cardToBlockRepository.deleteAllInBatch();
+        ownerId = userRepository.save(User.builder()
+                .login("block-" + UUID.randomUUID())
+                .password("password")
+                .role(User.Role.USER)
+                .build()).getId();
+    }
+
+    @Test
+    void insertIfAbsent_queues_card_once() {
+        var cardId = createCard();
+
+        assertEquals(1, cardToBlockRepository.insertIfAbsent(cardId));
+        assertEquals(0, cardToBlockRepository.insertIfAbsent(cardId));
+        assertEquals(1, cardToBlockRepository.count());
+    }
+
+    @Test
+    void blockChunk_skips_rows_locked_by_another_node() throws Exception {
+        var lockedCardId = createCard();
+        var freeCardId = createCard();
+        cardToBlockRepository.insertIfAbsent(lockedCardId);
+        cardToBlockRepository.insertIfAbsent(freeCardId);
+
+        var locked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        try (var executor = Executors.newSingleThreadExecutor()) {
+            var otherNode = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList("select id from bank.cards_to_block where card_id = ? for update",
+                        lockedCardId);
+                locked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            locked.await(10, TimeUnit.SECONDS);
+
+            assertEquals(1, cardToBlockRepository.blockChunk(10));
+            release.countDown();
+            otherNode.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(Card.Status.BLOCKED, cardRepository.findById(freeCardId).orElseThrow().getStatus());
+        assertEquals(Card.Status.ACTIVE, cardRepository.findById(lockedCardId).orElseThrow().getStatus());
+        assertEquals(1, cardToBlockRepository.blockChunk(10));
+        assertEquals(0, cardToBlockRepository.count());
+    }
+
+    private Long createCard() {
+        var number = String.valueOf(ThreadLocalRandom.current().nextLong(1_000_000_000_000_000L, 9_999_999_999_999_999L));
+        return cardService.createCard(CardDto.builder()
+                .number(number)
+                .ownerId(ownerId)
+                .status(Card.Status.ACTIVE)
+                .build()).getId();
+    }
+}
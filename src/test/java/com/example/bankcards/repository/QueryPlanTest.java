@@ -0,0 +1,119 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.AbstractPostgresTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryPlanTest extends AbstractPostgresTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void balance_drift_uses_indexes() throws Exception {
+        var sql = CardBalanceRepository.class.getMethod("findDrift", Collection.class)
+                .getAnnotation(Query.class).value()
+                .replace(":cardIds", "1, 2, 3");
+        assertNoSeqScan(sql);
+    }
+
+    @Test
+    void balance_snapshot_advance_uses_indexes() throws Exception {
+        var sql = BalanceSnapshotRepository.class.getMethod("advance", Collection.class, LocalDate.class)
+                .getAnnotation(Query.class).value()
+                .replace(":cardIds", "1, 2, 3")
+                .replace(":asOf", "current_date");
+        assertNoSeqScan(sql);
+    }
+
+    @Test
+    void user_history_uses_indexes() throws Exception {
+        assertNoSeqScan(generatedSql(TransactionRepository.class.getMethod("findAllByUserIdAfter",
+                Long.class, Long.class, Long.class, Pageable.class)));
+    }
+
+    @Test
+    void user_cards_use_indexes() throws Exception {
+        assertNoSeqScan(generatedSql(CardRepository.class.getMethod("getAllByUserId", Long.class)));
+    }
+
+    @Test
+    void card_expiry_uses_partial_index() {
+        var plan = explain("""
+                select id from bank.cards
+                where status = 'ACTIVE' and validity_period < current_date
+                order by validity_period limit 1000
+                """);
+        assertTrue(plan.contains("cards_active_validity_period_idx"), plan);
+    }
+
+    @Test
+    void card_sums_are_index_only_scans() {
+        for (String column : List.of("to_card", "from_card")) {
+            var plan = explain("select sum(t.amount) from bank.transactions t where t." + column + " = 1",
+                    "set local enable_bitmapscan = off");
+            assertTrue(plan.contains("Index Only Scan"), plan);
+        }
+    }
+
+    /**
+     * Runs the JPQL of a repository method and returns the SQL Hibernate generated for it. Every parameter is bound
+     * to 1, so each placeholder can be replaced with that literal regardless of the order Hibernate binds them in.
+     */
+    private String generatedSql(Method method) {
+        var jpql = method.getAnnotation(Query.class).value();
+        List<String> statements = new ArrayList<>();
+        try (var session = entityManagerFactory.unwrap(SessionFactory.class).withOptions()
+                .statementInspector(sql -> {
+                    statements.add(sql);
+                    return sql;
+                })
+                .openSession()) {
+            jakarta.persistence.Query query = session.createQuery(jpql);
+            for (var parameter : query.getParameters()) {
+                query.setParameter(parameter.getName(), 1L);
+            }
+            query.setMaxResults(1);
+            query.getResultList();
+        }
+        assertEquals(1, statements.size(), statements.toString());
+        return statements.get(0).replace("?", "1");
+    }
+
+    private void assertNoSeqScan(String sql) {
+        var plan = explain(sql);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    private String explain(String sql, String... settings) {
+        // Sequential scans are still chosen when no usable index exists, so disabling them turns
+        // a missing or unusable index into a visible Seq Scan even on the near-empty test tables.
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("set local enable_seqscan = off");
+            for (String setting : settings) {
+                jdbcTemplate.execute(setting);
+            }
+            return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+        });
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.AbstractPostgresTest;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.DepositDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardBalance;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.TransactionService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes the same chunked transfers with server-generated IDENTITY-style keys, read back by one
+ * {@code INSERT ... RETURNING id} per row, and through Hibernate with the pooled sequence mapping. Each chunk also
+ * locks and updates the card balances, as {@code TransactionCacheService.saveAll} does. Both variants get a discarded
+ * warmup pass and then alternate which one runs first.
+ */
+@Tag("benchmark")
+class TransactionInsertBenchmarkTest extends AbstractPostgresTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionInsertBenchmarkTest.class);
+    private static final int ROWS = 50_000;
+    private static final int ROUNDS = 2;
+    private static final int WARMUP_ROWS = 10_000;
+    private static final int CHUNK = 1_000;
+    private static final String INSERT_RETURNING_ID = """
+            insert into bank.transactions (from_card, to_card, amount, user_id, transaction_date)
+            values (?, ?, ?, ?, ?) returning id
+            """;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private CardBalanceRepository cardBalanceRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long ownerId;
+    private Long fromCardId;
+    private Long toCardId;
+
+    @Test
+    void insert_throughput_identity_vs_sequence_ids() {
+        ownerId = userRepository.save(User.builder()
+                .login("bench-" + UUID.randomUUID())
+                .password("password")
+                .role(User.Role.USER)
+                .build()).getId();
+        fromCardId = createCard(ownerId);
+        toCardId = createCard(ownerId);
+        var totalRows = 2L * (WARMUP_ROWS + ROUNDS * ROWS);
+        var deposit = new DepositDto();
+        deposit.setToCardId(fromCardId);
+        deposit.setAmount(totalRows);
+        transactionService.deposit(deposit);
+        var before = transactionRepository.count();
+
+        writeChunks(WARMUP_ROWS, this::insertReturningId);
+        writeChunks(WARMUP_ROWS, this::persistWithSequenceId);
+
+        var identityMillis = 0L;
+        var sequenceMillis = 0L;
+        for (int round = 0; round < ROUNDS; round++) {
+            if (round % 2 == 0) {
+                identityMillis += measure(() -> writeChunks(ROWS, this::insertReturningId));
+                sequenceMillis += measure(() -> writeChunks(ROWS, this::persistWithSequenceId));
+            } else {
+                sequenceMillis += measure(() -> writeChunks(ROWS, this::persistWithSequenceId));
+                identityMillis += measure(() -> writeChunks(ROWS, this::insertReturningId));
+            }
+        }
+
+        var measuredRows = (long) ROUNDS * ROWS;
+        log.info("Inserted {} transactions with IDENTITY-style returned ids: {} ms ({} rows/s)",
+                measuredRows, identityMillis, measuredRows * 1000L / identityMillis);
+        log.info("Persisted {} transactions with pooled sequence ids: {} ms ({} rows/s)",
+                measuredRows, sequenceMillis, measuredRows * 1000L / sequenceMillis);
+        assertEquals(before + totalRows, transactionRepository.count());
+        assertEquals(0L, cardBalanceRepository.findBalanceByCardId(fromCardId).orElseThrow());
+        assertEquals(totalRows, cardBalanceRepository.findBalanceByCardId(toCardId).orElseThrow());
+        assertTrue(cardBalanceRepository.findDrift(List.of(fromCardId, toCardId)).isEmpty());
+    }
+
+    private void insertReturningId() {
+        jdbcTemplate.queryForObject(INSERT_RETURNING_ID, Long.class,
+                fromCardId, toCardId, 1L, ownerId, LocalDate.now());
+    }
+
+    private void persistWithSequenceId() {
+        entityManager.persist(Transaction.builder()
+                .fromCard(cardRepository.getReferenceById(fromCardId))
+                .toCard(cardRepository.getReferenceById(toCardId))
+                .user(userRepository.getReferenceById(ownerId))
+                .amount(1L)
+                .date(LocalDate.now())
+                .build());
+    }
+
+    private void writeChunks(int rows, Runnable writeRow) {
+        for (int offset = 0; offset < rows; offset += CHUNK) {
+            transactionTemplate.executeWithoutResult(status -> {
+                var balances = cardBalanceRepository.findAllByCardIdInOrderByCardId(List.of(fromCardId, toCardId));
+                for (CardBalance balance : balances) {
+                    balance.setBalance(balance.getBalance() + (balance.getCardId().equals(fromCardId) ? -CHUNK : CHUNK));
+                }
+                for (int i = 0; i < CHUNK; i++) {
+                    writeRow.run();
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+
+    private Long createCard(Long ownerId) {
+        var number = String.valueOf(ThreadLocalRandom.current().nextLong(1_000_000_000_000_000L, 9_999_999_999_999_999L));
+        return cardService.createCard(CardDto.builder()
+                .number(number)
+                .ownerId(ownerId)
+                .status(Card.Status.ACTIVE)
+                .build()).getId();
+    }
+
+    private long measure(Runnable action) {
+        var start = System.nanoTime();
+        action.run();
+        return Math.max(1, (System.nanoTime() - start) / 1_000_000);
+    }
+}
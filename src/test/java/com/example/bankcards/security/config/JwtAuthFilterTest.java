@@ -0,0 +1,137 @@
+package com.example.bankcards.security.config;
+
+import com.example.bankcards.entity.User;
+import com.example.bankcards.security.service.JwtService;
+import com.example.bankcards.security.service.TokenRevocationService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthFilterTest {
+
+    private static final String SECRET_KEY = "S2pjZHJpdmFPUkVlYWtqR21iT3prSmwycmdkdjh3ZE8=";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    private final JwtService jwtService = new JwtService(SECRET_KEY, 60_000, 60_000, 100, new SimpleMeterRegistry());
+    private final User user = User.builder().id(7L).login("user").role(User.Role.USER).build();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void claims_mode_builds_principal_without_loading_user() throws Exception {
+        var filter = filter(JwtAuthFilter.PrincipalSource.CLAIMS, Duration.ZERO);
+
+        var authentication = authenticate(filter, jwtService.generateToken(user));
+
+        var principal = (User) authentication.getPrincipal();
+        assertEquals(7L, principal.getId());
+        assertEquals(User.Role.USER, principal.getRole());
+        assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void claims_mode_falls_back_to_database_without_user_claims() throws Exception {
+        var filter = filter(JwtAuthFilter.PrincipalSource.CLAIMS, Duration.ZERO);
+        when(userDetailsService.loadUserByUsername("user")).thenReturn(user);
+
+        var legacyToken = Jwts.builder()
+                .subject("user")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)))
+                .compact();
+
+        var authentication = authenticate(filter, legacyToken);
+
+        assertEquals(user, authentication.getPrincipal());
+    }
+
+    @Test
+    void refresh_token_is_not_accepted_as_access_token() throws Exception {
+        var filter = filter(JwtAuthFilter.PrincipalSource.CLAIMS, Duration.ZERO);
+
+        assertNull(authenticate(filter, jwtService.generateRefreshToken(user)));
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void revoked_token_stays_unauthenticated() throws Exception {
+        var filter = filter(JwtAuthFilter.PrincipalSource.CLAIMS, Duration.ZERO);
+        when(tokenRevocationService.isRevoked(anyString())).thenReturn(true);
+
+        assertNull(authenticate(filter, jwtService.generateToken(user)));
+    }
+
+    @Test
+    void claims_mode_with_user_cache_loads_user_once_per_ttl() throws Exception {
+        var filter = filter(JwtAuthFilter.PrincipalSource.CLAIMS, Duration.ofMinutes(1));
+        when(userDetailsService.loadUserByUsername("user")).thenReturn(user);
+        var token = jwtService.generateToken(user);
+
+        authenticate(filter, token);
+        SecurityContextHolder.clearContext();
+        var authentication = authenticate(filter, token);
+
+        assertEquals(user, authentication.getPrincipal());
+        verify(userDetailsService, times(1)).loadUserByUsername("user");
+    }
+
+    @Test
+    void deleted_user_stays_unauthenticated() throws Exception {
+        var filter = filter(JwtAuthFilter.PrincipalSource.DATABASE, Duration.ZERO);
+        when(userDetailsService.loadUserByUsername("user")).thenThrow(new UsernameNotFoundException("User not found"));
+
+        assertNull(authenticate(filter, jwtService.generateToken(user)));
+    }
+
+    @Test
+    void invalid_token_stays_unauthenticated() throws Exception {
+        var filter = filter(JwtAuthFilter.PrincipalSource.DATABASE, Duration.ZERO);
+
+        assertNull(authenticate(filter, "not-a-token"));
+    }
+
+    private JwtAuthFilter filter(JwtAuthFilter.PrincipalSource principalSource, Duration userCacheTtl) {
+        return new JwtAuthFilter(jwtService, userDetailsService, tokenRevocationService, principalSource, userCacheTtl, 100,
+                new SimpleMeterRegistry());
+    }
+
+    private Authentication authenticate(JwtAuthFilter filter, String token) throws Exception {
+        var request = new MockHttpServletRequest("GET", "/transaction_history");
+        request.setServletPath("/transaction_history");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
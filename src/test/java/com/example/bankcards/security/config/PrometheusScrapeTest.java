@@ -0,0 +1,50 @@
+package com.example.bankcards.security.config;
+
+import com.example.bankcards.AbstractPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = "management.server.port=0")
+class PrometheusScrapeTest extends AbstractPostgresTest {
+
+    @LocalServerPort
+    private int serverPort;
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void prometheus_is_scraped_without_token_on_management_port() throws Exception {
+        var response = get(managementPort, "/actuator/prometheus");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("jvm_memory_used_bytes"), response.body());
+    }
+
+    @Test
+    void other_actuator_endpoints_still_require_admin_on_management_port() throws Exception {
+        assertEquals(403, get(managementPort, "/actuator/metrics").statusCode());
+    }
+
+    @Test
+    void actuator_is_not_served_on_application_port() throws Exception {
+        assertTrue(get(serverPort, "/actuator/prometheus").statusCode() >= 400);
+    }
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        try (var client = HttpClient.newHttpClient()) {
+            var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bankcards.security.controller;
+
+import com.example.bankcards.AbstractPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * The test client connects from loopback, a trusted proxy address, so the rate limiter must key on the
+ * {@code X-Forwarded-For} client rather than on the shared proxy address.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {
+        "management.server.port=0",
+        "application.security.rate-limit.ip.capacity=3"
+})
+class AuthControllerForwardedForTest extends AbstractPostgresTest {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void ip_rate_limit_is_per_forwarded_client() throws Exception {
+        try (var client = HttpClient.newHttpClient()) {
+            for (int i = 0; i < 3; i++) {
+                assertNotEquals(TOO_MANY_REQUESTS, authenticate(client, "203.0.113.1").statusCode());
+            }
+            assertEquals(TOO_MANY_REQUESTS, authenticate(client, "203.0.113.1").statusCode());
+
+            assertNotEquals(TOO_MANY_REQUESTS, authenticate(client, "203.0.113.2").statusCode());
+        }
+    }
+
+    private HttpResponse<String> authenticate(HttpClient client, String forwardedFor) throws Exception {
+        var body = "{\"login\":\"forwarded-" + UUID.randomUUID() + "\",\"password\":\"wrong\"}";
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/auth/authenticate"))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", forwardedFor)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.bankcards.security.service;
+
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidTokenException;
+import com.example.bankcards.exception.TooManyRequestsException;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.dto.AuthRequest;
+import com.example.bankcards.security.dto.RefreshRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    private static final String SECRET_KEY = "S2pjZHJpdmFPUkVlYWtqR21iT3prSmwycmdkdjh3ZE8=";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    private final JwtService jwtService = new JwtService(SECRET_KEY, 60_000, 120_000, 100, new SimpleMeterRegistry());
+    private final User user = User.builder().id(1L).login("user").role(User.Role.USER).build();
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        var meterRegistry = new SimpleMeterRegistry();
+        authService = new AuthService(userRepository, passwordEncoder, jwtService, authenticationManager,
+                tokenRevocationService, new PasswordHashingExecutor(1, 1, meterRegistry),
+                new AuthRateLimiter(2, Duration.ofMinutes(1), 100, Duration.ofMinutes(1), 100, meterRegistry));
+    }
+
+    @Test
+    void authenticateAsync_runs_on_password_hashing_pool() throws Exception {
+        when(userRepository.findByLogin("user")).thenReturn(Optional.of(user));
+
+        var response = authService.authenticateAsync(authRequest(), "127.0.0.1").get(5, TimeUnit.SECONDS);
+
+        assertEquals("user", jwtService.extractUsername(response.getToken()));
+        verify(authenticationManager).authenticate(any());
+    }
+
+    @Test
+    void authenticateAsync_limits_attempts_per_login() {
+        when(userRepository.findByLogin("user")).thenReturn(Optional.of(user));
+
+        authService.authenticateAsync(authRequest(), "10.0.0.1").join();
+        authService.authenticateAsync(authRequest(), "10.0.0.2").join();
+
+        assertThrows(TooManyRequestsException.class, () -> authService.authenticateAsync(authRequest(), "10.0.0.3"));
+    }
+
+    @Test
+    void refresh_rotates_tokens_and_revokes_presented_token() {
+        var refreshToken = jwtService.generateRefreshToken(user);
+        var jti = jwtService.extractAllClaims(refreshToken).getId();
+        when(userRepository.findByLogin("user")).thenReturn(Optional.of(user));
+        when(tokenRevocationService.revoke(eq(jti), any(Date.class))).thenReturn(true);
+
+        var response = authService.refresh(request(refreshToken));
+
+        assertNotEquals(refreshToken, response.getRefreshToken());
+        assertTrue(jwtService.isRefreshToken(jwtService.extractAllClaims(response.getRefreshToken())));
+        verify(tokenRevocationService).revoke(eq(jti), any(Date.class));
+    }
+
+    @Test
+    void refresh_rejects_reused_token() {
+        var refreshToken = jwtService.generateRefreshToken(user);
+        when(userRepository.findByLogin("user")).thenReturn(Optional.of(user));
+        when(tokenRevocationService.revoke(anyString(), any(Date.class))).thenReturn(false);
+
+        assertThrows(InvalidTokenException.class, () -> authService.refresh(request(refreshToken)));
+    }
+
+    @Test
+    void refresh_rejects_access_token() {
+        var accessToken = jwtService.generateToken(user);
+
+        assertThrows(InvalidTokenException.class, () -> authService.refresh(request(accessToken)));
+        verifyNoInteractions(tokenRevocationService);
+    }
+
+    @Test
+    void refresh_rejects_malformed_token() {
+        assertThrows(InvalidTokenException.class, () -> authService.refresh(request("not-a-token")));
+    }
+
+    @Test
+    void logout_revokes_refresh_and_access_tokens() {
+        var refreshToken = jwtService.generateRefreshToken(user);
+        var accessToken = jwtService.generateToken(user);
+
+        authService.logout(request(refreshToken), accessToken);
+
+        verify(tokenRevocationService).revoke(eq(jwtService.extractAllClaims(refreshToken).getId()), any(Date.class));
+        verify(tokenRevocationService).revoke(eq(jwtService.extractAllClaims(accessToken).getId()), any(Date.class));
+    }
+
+    private AuthRequest authRequest() {
+        var request = new AuthRequest();
+        request.setLogin("user");
+        request.setPassword("password");
+        return request;
+    }
+
+    private RefreshRequest request(String refreshToken) {
+        var request = new RefreshRequest();
+        request.setRefreshToken(refreshToken);
+        return request;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.bankcards.security.service;
+
+import com.example.bankcards.entity.User;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtServiceTest {
+
+    private static final String SECRET_KEY = "S2pjZHJpdmFPUkVlYWtqR21iT3prSmwycmdkdjh3ZE8=";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtService service = new JwtService(SECRET_KEY, 60_000, 120_000, 100, meterRegistry);
+    private final User user = User.builder().id(1L).login("user").role(User.Role.USER).build();
+
+    @Test
+    void extractAllClaims_verifies_token_once_and_reuses_claims() {
+        var token = service.generateToken(user);
+
+        var first = service.extractAllClaims(token);
+        var second = service.extractAllClaims(token);
+
+        assertSame(first, second);
+        assertEquals("user", service.extractUsername(token));
+        assertTrue(service.isTokenValid(token, user));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwtClaims").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void isTokenValid_rejects_other_user() {
+        var token = service.generateToken(user);
+        var other = User.builder().id(2L).login("other").role(User.Role.USER).build();
+
+        assertFalse(service.isTokenValid(token, other));
+    }
+
+    @Test
+    void extractAllClaims_throw_ex_on_tampered_token() {
+        var token = service.generateToken(user);
+        var tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> service.extractAllClaims(tampered));
+    }
+
+    @Test
+    void extractAllClaims_throw_ex_on_expired_token() {
+        var expiring = new JwtService(SECRET_KEY, -1_000, -1_000, 100, meterRegistry);
+        var token = expiring.generateToken(user);
+
+        assertThrows(JwtException.class, () -> service.extractAllClaims(token));
+    }
+}
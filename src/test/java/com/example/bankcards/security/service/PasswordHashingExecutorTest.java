@@ -0,0 +1,49 @@
+package com.example.bankcards.security.service;
+
+import com.example.bankcards.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, meterRegistry);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void rejects_with_429_when_queue_is_full() throws Exception {
+        var started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            return await();
+        });
+        started.await(5, TimeUnit.SECONDS);
+        executor.submit(this::await);
+
+        assertThrows(TooManyRequestsException.class, () -> executor.submit(this::await));
+        assertEquals(1.0, meterRegistry.get("executor.queued").tag("name", "passwordHashing").gauge().value());
+        assertEquals(1.0, meterRegistry.get("auth.password_hashing.rejected").counter().count());
+    }
+
+    private Boolean await() {
+        try {
+            return release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.bankcards.security.service;
+
+import com.example.bankcards.repository.RevokedTokenRepository;
+import com.example.bankcards.util.BloomFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Test
+    void isRevoked_skips_database_for_unknown_token() {
+        var service = new TokenRevocationService(revokedTokenRepository, 1_000, 0.01);
+
+        for (int i = 0; i < 100; i++) {
+            assertFalse(service.isRevoked("token-" + i));
+        }
+        verify(revokedTokenRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    void revoke_is_single_use() {
+        var service = new TokenRevocationService(revokedTokenRepository, 1_000, 0.01);
+        var expiresAt = new Date();
+        when(revokedTokenRepository.insertIfAbsent("jti", expiresAt.toInstant())).thenReturn(1, 0);
+        when(revokedTokenRepository.existsById("jti")).thenReturn(true);
+
+        assertTrue(service.revoke("jti", expiresAt));
+        assertFalse(service.revoke("jti", expiresAt));
+        assertTrue(service.isRevoked("jti"));
+    }
+
+    @Test
+    void rebuild_loads_revocations_from_other_nodes() {
+        var service = new TokenRevocationService(revokedTokenRepository, 1_000, 0.01);
+        when(revokedTokenRepository.findActiveJtis(any(Instant.class))).thenReturn(List.of("remote"));
+        when(revokedTokenRepository.existsById("remote")).thenReturn(true);
+
+        assertFalse(service.isRevoked("remote"));
+        service.rebuild();
+
+        assertTrue(service.isRevoked("remote"));
+        verify(revokedTokenRepository).deleteExpired(any(Instant.class));
+    }
+
+    @Test
+    void revoke_during_rebuild_is_not_lost() throws Exception {
+        var service = new TokenRevocationService(revokedTokenRepository, 1_000, 0.01);
+        var expiresAt = new Date();
+        var reading = new CountDownLatch(1);
+        var finishReading = new CountDownLatch(1);
+        // The table is read before the revocation commits, so the rebuilt filter gets the id only from revoke.
+        when(revokedTokenRepository.findActiveJtis(any(Instant.class))).thenAnswer(invocation -> {
+            reading.countDown();
+            finishReading.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        when(revokedTokenRepository.insertIfAbsent("jti", expiresAt.toInstant())).thenReturn(1);
+        when(revokedTokenRepository.existsById("jti")).thenReturn(true);
+
+        try (var executor = Executors.newSingleThreadExecutor()) {
+            var rebuild = executor.submit(service::rebuild);
+            assertTrue(reading.await(5, TimeUnit.SECONDS));
+            // The rebuild swaps filters right after the revocation writes to the current one.
+            ReflectionTestUtils.setField(service, "filter", new BloomFilter(1_000, 0.01) {
+                @Override
+                public void put(String value) {
+                    super.put(value);
+                    finishReading.countDown();
+                    try {
+                        rebuild.get(5, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+
+            assertTrue(service.revoke("jti", expiresAt));
+        }
+
+        assertTrue(service.isRevoked("jti"));
+    }
+}
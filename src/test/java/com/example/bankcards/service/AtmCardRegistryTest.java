@@ -0,0 +1,49 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.TestConfig;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.ATMNotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@Import(TestConfig.class)
+@ExtendWith(MockitoExtension.class)
+class AtmCardRegistryTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @InjectMocks
+    private AtmCardRegistry registry;
+
+    @Test
+    void nextAtmCardId_rotates_over_loaded_cards_without_queries() {
+        when(cardRepository.findAtmCardIds(Card.Status.ACTIVE)).thenReturn(List.of(10L, 20L, 30L));
+        registry.refresh();
+
+        var ids = List.of(registry.nextAtmCardId(), registry.nextAtmCardId(), registry.nextAtmCardId(),
+                registry.nextAtmCardId());
+
+        assertEquals(List.of(10L, 20L, 30L, 10L), ids);
+        verify(cardRepository, times(1)).findAtmCardIds(Card.Status.ACTIVE);
+    }
+
+    @Test
+    void nextAtmCardId_throw_ex_without_atm_cards() {
+        when(cardRepository.findAtmCardIds(Card.Status.ACTIVE)).thenReturn(List.of());
+        registry.refresh();
+
+        assertThrows(ATMNotFoundException.class, registry::nextAtmCardId);
+    }
+}
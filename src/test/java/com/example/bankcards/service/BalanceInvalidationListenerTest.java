@@ -0,0 +1,95 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.BankCardsApp;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.DepositDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardBalanceRepository;
+import com.example.bankcards.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Testcontainers(disabledWithoutDocker = true)
+class BalanceInvalidationListenerTest {
+
+    private static final String CHANNEL = "card_balance";
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15.3-alpine");
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+
+    @Test
+    void deposit_on_one_node_evicts_cached_balance_on_other_node() throws InterruptedException {
+        var owner = nodeA.getBean(UserRepository.class).save(User.builder()
+                .login("cluster-" + UUID.randomUUID())
+                .password("password")
+                .role(User.Role.USER)
+                .build());
+        var cardId = nodeA.getBean(CardService.class).createCard(CardDto.builder()
+                .number("4000" + (100_000_000_000L + System.nanoTime() % 900_000_000_000L))
+                .ownerId(owner.getId())
+                .status(Card.Status.ACTIVE)
+                .build()).getId();
+        var serviceOnB = nodeB.getBean(TransactionService.class);
+        assertEquals(0L, serviceOnB.getBalanceFromCache(cardId));
+
+        var deposit = new DepositDto();
+        deposit.setToCardId(cardId);
+        deposit.setAmount(500L);
+        nodeA.getBean(TransactionService.class).deposit(deposit);
+
+        var deadline = System.currentTimeMillis() + 10_000;
+        while (serviceOnB.getBalanceFromCache(cardId) != 500L && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(500L, serviceOnB.getBalanceFromCache(cardId));
+    }
+
+    @Test
+    void malformed_notification_does_not_stop_listener() throws InterruptedException {
+        nodeA.getBean(CardBalanceRepository.class).publishNotification(CHANNEL, "other-node|not-a-card-id");
+
+        deposit_on_one_node_evicts_cached_balance_on_other_node();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        // Command-line arguments, unlike default properties, take precedence over application.yml.
+        return new SpringApplicationBuilder(BankCardsApp.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                "--spring.datasource.username=" + POSTGRES.getUsername(),
+                "--spring.datasource.password=" + POSTGRES.getPassword(),
+                "--application.cache.invalidation.enabled=true",
+                "--application.cache.invalidation.channel=" + CHANNEL);
+    }
+}
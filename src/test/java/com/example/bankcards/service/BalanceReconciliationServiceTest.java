@@ -0,0 +1,81 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.TestConfig;
+import com.example.bankcards.repository.CardBalanceRepository;
+import com.example.bankcards.repository.CardBalanceRepository.BalanceDrift;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@Import(TestConfig.class)
+@ExtendWith(MockitoExtension.class)
+class BalanceReconciliationServiceTest {
+
+    @Mock
+    private CardBalanceRepository cardBalanceRepository;
+
+    @InjectMocks
+    private BalanceReconciliationService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+    }
+
+    @Test
+    void reconcile_walks_all_chunks_and_reports_drift() {
+        when(cardBalanceRepository.findCardIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(cardBalanceRepository.findCardIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(3L));
+        when(cardBalanceRepository.findDrift(List.of(1L, 2L))).thenReturn(List.of());
+        when(cardBalanceRepository.findDrift(List.of(3L))).thenReturn(List.of(drift(3L, 100L, 70L)));
+
+        var drifts = service.reconcile();
+
+        assertEquals(1, drifts.size());
+        assertEquals(3L, drifts.get(0).getId());
+        verify(cardBalanceRepository, never()).add(any(), any());
+    }
+
+    @Test
+    void reconcile_repairs_drift_with_delta() {
+        ReflectionTestUtils.setField(service, "repair", true);
+        when(cardBalanceRepository.findCardIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L));
+        when(cardBalanceRepository.findDrift(List.of(1L))).thenReturn(List.of(drift(1L, 100L, 70L)));
+
+        service.reconcile();
+
+        verify(cardBalanceRepository).add(1L, -30L);
+    }
+
+    private BalanceDrift drift(Long id, Long stored, Long actual) {
+        return new BalanceDrift() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getStored() {
+                return stored;
+            }
+
+            @Override
+            public Long getActual() {
+                return actual;
+            }
+        };
+    }
+}
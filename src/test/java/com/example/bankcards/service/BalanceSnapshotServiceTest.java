@@ -0,0 +1,121 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.TestConfig;
+import com.example.bankcards.exception.RebuildInProgressException;
+import com.example.bankcards.repository.BalanceSnapshotRepository;
+import com.example.bankcards.repository.CardBalanceRepository;
+import com.example.bankcards.repository.CardBalanceRepository.CardIdRange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@Import(TestConfig.class)
+@ExtendWith(MockitoExtension.class)
+class BalanceSnapshotServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+    private static final LocalDate AS_OF = TODAY.minusDays(1);
+
+    @Mock
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+    @Mock
+    private CardBalanceRepository cardBalanceRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BalanceSnapshotService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BalanceSnapshotService(balanceSnapshotRepository, cardBalanceRepository, meterRegistry,
+                2, 1, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void advance_walks_all_chunks_up_to_lagged_date() {
+        when(cardBalanceRepository.findCardIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(cardBalanceRepository.findCardIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(3L));
+        when(balanceSnapshotRepository.advance(List.of(1L, 2L), AS_OF)).thenReturn(2);
+        when(balanceSnapshotRepository.advance(List.of(3L), AS_OF)).thenReturn(0);
+
+        assertEquals(2, service.advance(TODAY));
+        assertEquals(2, meterRegistry.counter("balance_snapshot.written").count());
+    }
+
+    @Test
+    void rebuild_replays_each_card_id_range() {
+        when(cardBalanceRepository.findCardIdRange()).thenReturn(range(1L, 10L));
+        when(cardBalanceRepository.findCardIdsBetween(eq(0L), eq(5L), any(Pageable.class))).thenReturn(List.of(1L, 3L));
+        when(cardBalanceRepository.findCardIdsBetween(eq(3L), eq(5L), any(Pageable.class))).thenReturn(List.of(5L));
+        when(cardBalanceRepository.findCardIdsBetween(eq(5L), eq(10L), any(Pageable.class))).thenReturn(List.of(7L));
+        when(balanceSnapshotRepository.rebuild(List.of(1L, 3L), AS_OF)).thenReturn(2);
+        when(balanceSnapshotRepository.rebuild(List.of(5L), AS_OF)).thenReturn(1);
+        when(balanceSnapshotRepository.rebuild(List.of(7L), AS_OF)).thenReturn(1);
+
+        assertEquals(4, service.rebuild(TODAY));
+        verify(balanceSnapshotRepository, times(3)).rebuild(any(), eq(AS_OF));
+    }
+
+    @Test
+    void rebuild_without_cards_does_nothing() {
+        when(cardBalanceRepository.findCardIdRange()).thenReturn(range(null, null));
+
+        assertEquals(0, service.rebuild(TODAY));
+        verifyNoInteractions(balanceSnapshotRepository);
+    }
+
+    @Test
+    void rebuild_request_is_rejected_while_one_is_running() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(cardBalanceRepository.findCardIdRange()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return range(null, null);
+        });
+
+        service.requestRebuild();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertThrows(RebuildInProgressException.class, service::requestRebuild);
+        release.countDown();
+
+        verify(cardBalanceRepository, timeout(5000).times(1)).findCardIdRange();
+        verifyNoInteractions(balanceSnapshotRepository);
+    }
+
+    private CardIdRange range(Long lowest, Long highest) {
+        return new CardIdRange() {
+            @Override
+            public Long getLowest() {
+                return lowest;
+            }
+
+            @Override
+            public Long getHighest() {
+                return highest;
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.TestConfig;
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@Import(TestConfig.class)
+@ExtendWith(MockitoExtension.class)
+class CardExpiryServiceTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void expireCards_updates_in_chunks_until_short_chunk() {
+        var service = new CardExpiryService(cardRepository, meterRegistry, 100);
+        var today = LocalDate.now();
+        when(cardRepository.expireChunk(today, 100)).thenReturn(100, 100, 7);
+
+        var expired = service.expireCards(today);
+
+        assertEquals(207, expired);
+        verify(cardRepository, times(3)).expireChunk(today, 100);
+        assertEquals(207.0, meterRegistry.get("card_expiry.expired").counter().count());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.TestConfig;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardRepository.CardNumberView;
+import com.example.bankcards.util.EncryptionUtilService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@Import(TestConfig.class)
+@ExtendWith(MockitoExtension.class)
+class CardNumberMigrationServiceTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private EncryptionUtilService encryptionService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private CardNumberMigrationService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "idleInterval", Duration.ofHours(1));
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void migrate_reencrypts_all_batches_with_conditional_update() {
+        when(cardRepository.findLegacyNumbersAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(card(1L, "old-1"), card(2L, "old-2")));
+        when(cardRepository.findLegacyNumbersAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(card(5L, "old-5")));
+        when(encryptionService.decrypt(any())).thenAnswer(invocation -> "000000000000" + invocation.getArgument(0));
+        when(encryptionService.encrypt(any())).thenAnswer(invocation -> "v2:" + invocation.getArgument(0));
+        when(encryptionService.hash(any())).thenAnswer(invocation -> "hash-" + invocation.getArgument(0));
+        when(cardRepository.updateNumber(any(), any(), any(), any(), any())).thenReturn(1);
+        when(cardRepository.updateNumber(eq(2L), any(), any(), any(), any())).thenReturn(0);
+
+        var migrated = service.migrate();
+
+        assertEquals(2, migrated);
+        verify(cardRepository).updateNumber(1L, "old-1", "v2:000000000000old-1", "hash-000000000000old-1", "old-1");
+        verify(cardRepository).updateNumber(5L, "old-5", "v2:000000000000old-5", "hash-000000000000old-5", "old-5");
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void scheduledMigrate_idles_after_run_without_legacy_numbers() {
+        when(cardRepository.findLegacyNumbersAfter(eq(0L), any(Pageable.class))).thenReturn(List.of());
+
+        service.scheduledMigrate();
+        service.scheduledMigrate();
+
+        // One scan and one emptiness check in the first run, none in the second.
+        verify(cardRepository, times(2)).findLegacyNumbersAfter(eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    void scheduledMigrate_checks_again_after_idle_interval() {
+        ReflectionTestUtils.setField(service, "idleInterval", Duration.ZERO);
+        when(cardRepository.findLegacyNumbersAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(), List.of(), List.of(card(1L, "old-1")));
+        when(encryptionService.decrypt(any())).thenReturn("0000000000001111");
+        when(cardRepository.updateNumber(any(), any(), any(), any(), any())).thenReturn(1);
+
+        service.scheduledMigrate();
+        service.scheduledMigrate();
+
+        verify(cardRepository).updateNumber(eq(1L), eq("old-1"), any(), any(), eq("1111"));
+    }
+
+    @Test
+    void scheduledMigrate_keeps_scanning_when_updates_lose_their_race() {
+        when(cardRepository.findLegacyNumbersAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(card(1L, "old-1")));
+        when(encryptionService.decrypt(any())).thenReturn("0000000000001111");
+        when(cardRepository.updateNumber(any(), any(), any(), any(), any())).thenReturn(0, 1);
+
+        service.scheduledMigrate();
+        service.scheduledMigrate();
+
+        verify(cardRepository, times(2)).updateNumber(eq(1L), eq("old-1"), any(), any(), eq("1111"));
+    }
+
+    private CardNumberView card(Long id, String number) {
+        return new CardNumberView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getNumber() {
+                return number;
+            }
+        };
+    }
+}
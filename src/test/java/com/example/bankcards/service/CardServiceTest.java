@@ -3,9 +3,12 @@ package com.example.bankcards.service;
 import com.example.bankcards.TestConfig;
 import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.CardNotFoundException;
 import com.example.bankcards.exception.UserNotFoundException;
+import com.example.bankcards.repository.CardBalanceRepository;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardRepository.CardView;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.util.EncryptionUtilService;
 import org.junit.jupiter.api.Test;
@@ -15,8 +18,18 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.annotation.Import;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @Import(TestConfig.class)
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +38,8 @@ class CardServiceTest {
     @Mock
     private CardRepository cardRepository;
     @Mock
+    private CardBalanceRepository cardBalanceRepository;
+    @Mock
     private UserRepository userRepository;
     @Mock
     private EncryptionUtilService encryptionService;
@@ -72,4 +87,35 @@ class CardServiceTest {
         String actual = exception.getMessage();
         assertTrue(actual.contains(expected));
     }
+
+    @Test
+    void getCardsByUserId_masks_numbers_without_decrypting() {
+        Long userId = 1L;
+        when(userRepository.findById(userId)).thenReturn(Optional.of(User.builder().id(userId).build()));
+        var view = cardView(5L, "1234");
+        when(cardRepository.getAllByUserId(userId)).thenReturn(List.of(view));
+        when(transactionService.getBalancesFromCache(List.of(5L))).thenReturn(Map.of(5L, 100L));
+
+        var cards = service.getCardsByUserId(userId);
+
+        assertEquals("**** **** **** 1234", cards.get(0).getNumber());
+        assertEquals(100L, cards.get(0).getBalance());
+        verify(encryptionService, never()).decrypt(any());
+    }
+
+    @Test
+    void revealNumber_throw_ex_card_not_found() {
+        Long cardId = 1L;
+        Exception exception = assertThrows(CardNotFoundException.class, () -> service.revealNumber(cardId));
+        String expected = CardNotFoundException.MSG.formatted(cardId);
+        String actual = exception.getMessage();
+        assertTrue(actual.contains(expected));
+    }
+
+    private CardView cardView(Long id, String last4) {
+        var view = mock(CardView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getNumberLast4()).thenReturn(last4);
+        return view;
+    }
 }
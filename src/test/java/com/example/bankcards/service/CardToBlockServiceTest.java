@@ -1,18 +1,25 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.TestConfig;
+import com.example.bankcards.entity.Card;
 import com.example.bankcards.exception.CardNotFoundException;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.CardToBlockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.TaskScheduler;
 
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
 
 @Import(TestConfig.class)
 @ExtendWith(MockitoExtension.class)
@@ -22,10 +29,17 @@ class CardToBlockServiceTest {
     private CardToBlockRepository cardToBlockRepository;
     @Mock
     private CardRepository cardRepository;
+    @Mock
+    private TaskScheduler taskScheduler;
 
-    @InjectMocks
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     private CardToBlockService service;
 
+    @BeforeEach
+    void setUp() {
+        service = new CardToBlockService(cardToBlockRepository, cardRepository, taskScheduler, meterRegistry, 2);
+    }
+
     @Test
     void addCardToBlock() {
         Long cardId = 1L;
@@ -35,4 +49,28 @@ class CardToBlockServiceTest {
         String actual = exception.getMessage();
         assertTrue(actual.contains(expected));
     }
+
+    @Test
+    void addCardToBlock_queues_card_once() {
+        var card = Card.builder().id(1L).build();
+        when(cardRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(card));
+
+        service.addCardToBlock(1L, 1L);
+
+        verify(cardToBlockRepository).insertIfAbsent(1L);
+        verify(cardToBlockRepository, never()).save(any());
+    }
+
+    @Test
+    void blockCards_drains_queue_in_chunks_and_records_progress() {
+        when(cardToBlockRepository.blockChunk(2)).thenReturn(2, 2, 1);
+        when(cardToBlockRepository.count()).thenReturn(0L);
+
+        service.scheduledBlockCards();
+
+        verify(cardToBlockRepository, times(3)).blockChunk(2);
+        assertEquals(5.0, meterRegistry.get("card_block.blocked").counter().count());
+        assertEquals(1L, meterRegistry.get("card_block.run").timer().count());
+        assertEquals(0.0, meterRegistry.get("card_block.queue.size").gauge().value());
+    }
 }
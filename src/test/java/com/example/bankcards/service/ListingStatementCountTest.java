@@ -0,0 +1,102 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.AbstractPostgresTest;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.DepositDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ListingStatementCountTest extends AbstractPostgresTest {
+
+    private static final int CARDS = 20;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionCacheService transactionCacheService;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .login("listing-" + UUID.randomUUID())
+                .password("password")
+                .role(User.Role.USER)
+                .build());
+        for (int i = 0; i < CARDS; i++) {
+            var deposit = new DepositDto();
+            deposit.setToCardId(createCard(owner.getId()));
+            deposit.setAmount(100L);
+            transactionService.deposit(deposit);
+        }
+        transactionCacheService.evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void transaction_history_page_is_one_statement() {
+        var history = transactionService.getTransactionHistoryByUserId(owner.getId(), PageRequest.of(0, CARDS), null);
+
+        assertEquals(CARDS, history.size());
+        assertEquals(owner.getLogin(), history.get(0).getLogin());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void all_transaction_history_page_is_one_statement() {
+        var history = transactionService.getAllTransactionHistory(PageRequest.of(0, CARDS), null);
+
+        assertEquals(CARDS, history.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void card_page_loads_cards_and_balances_in_two_statements() {
+        var cards = cardService.getAllCards(PageRequest.of(0, CARDS), Card.Status.ACTIVE);
+
+        assertEquals(CARDS, cards.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void user_cards_load_user_cards_and_balances_in_three_statements() {
+        var cards = cardService.getCardsByUserId(owner.getId());
+
+        assertEquals(CARDS, cards.size());
+        cards.forEach(card -> assertEquals(100L, card.getBalance()));
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    private Long createCard(Long ownerId) {
+        var number = String.valueOf(ThreadLocalRandom.current().nextLong(1_000_000_000_000_000L, 9_999_999_999_999_999L));
+        return cardService.createCard(CardDto.builder()
+                .number(number)
+                .ownerId(ownerId)
+                .status(Card.Status.ACTIVE)
+                .build()).getId();
+    }
+}
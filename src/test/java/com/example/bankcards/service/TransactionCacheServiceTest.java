@@ -0,0 +1,113 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardBalance;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.exception.CardNotFoundException;
+import com.example.bankcards.exception.InvalidAmountException;
+import com.example.bankcards.repository.CardBalanceRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionCacheServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private CardBalanceRepository cardBalanceRepository;
+    @Mock
+    private BalanceInvalidationPublisher invalidationPublisher;
+
+    private TransactionCacheService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TransactionCacheService(transactionRepository, cardBalanceRepository, invalidationPublisher,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void save_fails_when_credited_card_has_no_balance_row() {
+        when(cardBalanceRepository.withdraw(1L, 10L)).thenReturn(1);
+        when(cardBalanceRepository.add(2L, 10L)).thenReturn(0);
+
+        assertThrows(CardNotFoundException.class, () -> service.save(transaction(1L, 2L, 10L), 1L, 2L));
+
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void deposit_fails_when_atm_card_has_no_balance_row() {
+        when(cardBalanceRepository.add(1L, -10L)).thenReturn(0);
+
+        assertThrows(CardNotFoundException.class, () -> service.save(transaction(1L, 2L, 10L), 2L));
+
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void save_rejects_non_positive_amounts() {
+        assertThrows(InvalidAmountException.class, () -> service.save(transaction(1L, 2L, -10L), 1L, 2L));
+        assertThrows(InvalidAmountException.class, () -> service.save(transaction(1L, 2L, 0L), 2L));
+
+        verifyNoInteractions(cardBalanceRepository, transactionRepository);
+    }
+
+    @Test
+    void balance_evicted_during_load_is_not_cached() {
+        when(cardBalanceRepository.findBalanceByCardId(1L))
+                .thenAnswer(invocation -> {
+                    // The row was read before a concurrent transfer committed and evicted the card.
+                    service.evict(List.of(1L));
+                    return Optional.of(100L);
+                })
+                .thenReturn(Optional.of(200L));
+
+        assertEquals(100L, service.getBalanceFromCache(1L));
+        assertEquals(200L, service.getBalanceFromCache(1L));
+        assertEquals(200L, service.getBalanceFromCache(1L));
+
+        verify(cardBalanceRepository, times(2)).findBalanceByCardId(1L);
+    }
+
+    @Test
+    void balances_evicted_during_bulk_load_are_not_cached() {
+        when(cardBalanceRepository.findAllByCardIdIn(List.of(1L, 2L)))
+                .thenAnswer(invocation -> {
+                    service.evict(List.of(1L));
+                    return List.of(balance(1L, 100L), balance(2L, 50L));
+                });
+        when(cardBalanceRepository.findAllByCardIdIn(List.of(1L))).thenReturn(List.of(balance(1L, 200L)));
+
+        assertEquals(Map.of(1L, 100L, 2L, 50L), service.getBalancesFromCache(List.of(1L, 2L)));
+        assertEquals(Map.of(1L, 200L, 2L, 50L), service.getBalancesFromCache(List.of(1L, 2L)));
+    }
+
+    private CardBalance balance(Long cardId, Long balance) {
+        return CardBalance.builder().cardId(cardId).balance(balance).build();
+    }
+
+    private Transaction transaction(Long fromCardId, Long toCardId, Long amount) {
+        return Transaction.builder()
+                .fromCard(Card.builder().id(fromCardId).build())
+                .toCard(Card.builder().id(toCardId).build())
+                .amount(amount)
+                .build();
+    }
+}
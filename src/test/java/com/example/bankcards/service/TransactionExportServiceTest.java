@@ -0,0 +1,69 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.TestConfig;
+import com.example.bankcards.dto.TransactionDto;
+import com.example.bankcards.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@Import(TestConfig.class)
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    @InjectMocks
+    private TransactionExportService service;
+
+    @Test
+    void exportByUserId_writes_csv_with_escaped_login() throws Exception {
+        Long userId = 1L;
+        when(transactionRepository.streamAllByUserId(userId, null))
+                .thenReturn(Stream.of(row(1L, "user"), row(2L, "a,\"b\"")));
+        var out = new ByteArrayOutputStream();
+
+        service.exportByUserId(userId, null, TransactionExportService.Format.CSV, out);
+
+        assertEquals("""
+                id,fromCard,toCard,amount,login,date
+                1,10,20,100,user,2025-01-02
+                2,10,20,100,"a,""b""",2025-01-02
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportAll_writes_one_json_object_per_line() throws Exception {
+        when(transactionRepository.streamAllByAmount(50L)).thenReturn(Stream.of(row(1L, "user"), row(2L, "admin")));
+        var out = new ByteArrayOutputStream();
+
+        service.exportAll(50L, TransactionExportService.Format.NDJSON, out);
+
+        var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("admin", objectMapper.readTree(lines[1]).get("login").asText());
+        assertEquals("2025-01-02", objectMapper.readTree(lines[0]).get("date").asText());
+    }
+
+    private TransactionDto row(Long id, String login) {
+        return new TransactionDto(id, 10L, 20L, 100L, login, LocalDate.of(2025, 1, 2));
+    }
+}
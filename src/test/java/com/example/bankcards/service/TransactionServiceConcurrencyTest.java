@@ -0,0 +1,116 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.AbstractPostgresTest;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.DepositDto;
+import com.example.bankcards.dto.TransactionDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.InvalidAmountException;
+import com.example.bankcards.repository.CardBalanceRepository;
+import com.example.bankcards.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionServiceConcurrencyTest extends AbstractPostgresTest {
+
+    private static final int TRANSFERS = 4000;
+    private static final int THREADS = 64;
+    private static final long INITIAL_BALANCE = 1000L;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardBalanceRepository cardBalanceRepository;
+
+    @Test
+    void parallel_transfers_never_overdraw_card() throws Exception {
+        var owner = userRepository.save(User.builder()
+                .login("stress-" + UUID.randomUUID())
+                .password("password")
+                .role(User.Role.USER)
+                .build());
+        var first = createCard(owner.getId());
+        var second = createCard(owner.getId());
+        var deposit = new DepositDto();
+        deposit.setToCardId(first);
+        deposit.setAmount(INITIAL_BALANCE);
+        transactionService.deposit(deposit);
+
+        var succeeded = new AtomicInteger();
+        var rejected = new AtomicInteger();
+        var invalid = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < TRANSFERS; i++) {
+            var reverse = i % 4 == 0;
+            // Every tenth transfer carries a non-positive amount, which would credit the source card
+            // and overdraw the destination one if it got through.
+            var nonPositive = i % 10 == 5;
+            futures.add(executor.submit(() -> {
+                start.await();
+                var dto = new TransactionDto();
+                dto.setFromCard(reverse ? second : first);
+                dto.setToCard(reverse ? first : second);
+                dto.setAmount(nonPositive
+                        ? -ThreadLocalRandom.current().nextLong(0, 5)
+                        : ThreadLocalRandom.current().nextLong(1, 5));
+                try {
+                    transactionService.createTransaction(dto, owner.getId());
+                    succeeded.incrementAndGet();
+                } catch (InsufficientFundsException e) {
+                    rejected.incrementAndGet();
+                } catch (InvalidAmountException e) {
+                    invalid.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        var firstBalance = cardBalanceRepository.findBalanceByCardId(first).orElseThrow();
+        var secondBalance = cardBalanceRepository.findBalanceByCardId(second).orElseThrow();
+        assertEquals(TRANSFERS, succeeded.get() + rejected.get() + invalid.get());
+        assertEquals(TRANSFERS / 10, invalid.get());
+        assertTrue(rejected.get() > 0);
+        assertTrue(firstBalance >= 0);
+        assertTrue(secondBalance >= 0);
+        assertEquals(INITIAL_BALANCE, firstBalance + secondBalance);
+        assertTrue(cardBalanceRepository.findDrift(List.of(first, second)).isEmpty());
+        assertEquals(firstBalance, transactionService.getBalanceFromCache(first));
+        assertEquals(secondBalance, transactionService.getBalanceFromCache(second));
+    }
+
+    private Long createCard(Long ownerId) {
+        var number = String.valueOf(ThreadLocalRandom.current().nextLong(1_000_000_000_000_000L, 9_999_999_999_999_999L));
+        var dto = CardDto.builder()
+                .number(number)
+                .ownerId(ownerId)
+                .status(Card.Status.ACTIVE)
+                .build();
+        return cardService.createCard(dto).getId();
+    }
+}
@@ -3,24 +3,44 @@ package com.example.bankcards.service;
 import com.example.bankcards.TestConfig;
 import com.example.bankcards.dto.DepositDto;
 import com.example.bankcards.dto.TransactionDto;
+import com.example.bankcards.dto.TransactionResultDto;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.BatchSizeExceededException;
 import com.example.bankcards.exception.CardNotFoundException;
 import com.example.bankcards.exception.CardOwnerException;
 import com.example.bankcards.exception.CardStatusNotActiveException;
 import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.InvalidAmountException;
+import com.example.bankcards.exception.InvalidCursorException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CursorUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @Import(TestConfig.class)
@@ -31,6 +51,12 @@ class TransactionServiceTest {
     private CardRepository cardRepository;
     @Mock
     private TransactionCacheService transactionCacheService;
+    @Mock
+    private CardLocks cardLocks;
+    @Mock
+    private AtmCardRegistry atmCardRegistry;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private TransactionService service;
@@ -81,6 +107,7 @@ class TransactionServiceTest {
         String expected = InsufficientFundsException.MSG.formatted(fromCardId);
         String actual = exception.getMessage();
         assertTrue(actual.contains(expected));
+        assertEquals(1L, meterRegistry.get("bank.transfer").tag("outcome", "insufficient_funds").timer().count());
     }
 
     @Test
@@ -113,4 +140,168 @@ class TransactionServiceTest {
         String actual = exception.getMessage();
         assertTrue(actual.contains(expected));
     }
+
+    @Test
+    void deposit_throw_ex_card_expired_before_sweep() {
+        Long cardId = 1L;
+        DepositDto dto = new DepositDto();
+        dto.setToCardId(cardId);
+
+        Card card = Card.builder()
+                .id(cardId)
+                .status(Card.Status.ACTIVE)
+                .validityPeriod(LocalDate.now().minusDays(1))
+                .build();
+
+        when(cardRepository.findByIdAndIsAtmFalse(any()))
+                .thenReturn(Optional.of(card));
+
+        Exception exception = assertThrows(CardStatusNotActiveException.class, () -> service.deposit(dto));
+        String expected = CardStatusNotActiveException.MSG.formatted(cardId);
+        String actual = exception.getMessage();
+        assertTrue(actual.contains(expected));
+    }
+
+    @Test
+    void deposit_takes_atm_card_from_registry() {
+        Long cardId = 1L;
+        DepositDto dto = new DepositDto();
+        dto.setToCardId(cardId);
+        dto.setAmount(100L);
+
+        Card card = Card.builder()
+                .id(cardId)
+                .status(Card.Status.ACTIVE)
+                .build();
+        Card atm = Card.builder()
+                .id(2L)
+                .isAtm(true)
+                .build();
+
+        when(cardRepository.findByIdAndIsAtmFalse(cardId)).thenReturn(Optional.of(card));
+        when(atmCardRegistry.nextAtmCardId()).thenReturn(2L);
+        when(cardRepository.getReferenceById(2L)).thenReturn(atm);
+        when(cardLocks.lock(cardId)).thenReturn(() -> {
+        });
+
+        service.deposit(dto);
+
+        verify(transactionCacheService).save(argThat(tx -> tx.getFromCard() == atm && tx.getAmount() == 100L),
+                eq(cardId));
+    }
+
+    @Test
+    void createTransactions_throw_ex_batch_too_large() {
+        ReflectionTestUtils.setField(service, "maxBatchSize", 1);
+        var dtos = Collections.nCopies(2, new TransactionDto());
+        Exception exception = assertThrows(BatchSizeExceededException.class, () -> service.createTransactions(dtos, 1L));
+        String expected = BatchSizeExceededException.MSG.formatted(2, 1);
+        String actual = exception.getMessage();
+        assertTrue(actual.contains(expected));
+    }
+
+    @Test
+    void createTransactions_returns_result_per_item() {
+        ReflectionTestUtils.setField(service, "maxBatchSize", 10);
+        Long ownerId = 1L;
+        Card first = Card.builder().id(1L).status(Card.Status.ACTIVE).build();
+        Card second = Card.builder().id(2L).status(Card.Status.ACTIVE).build();
+        Card blocked = Card.builder().id(3L).status(Card.Status.BLOCKED).build();
+
+        when(cardRepository.findAllByIdInAndUserId(anyCollection(), eq(ownerId)))
+                .thenReturn(List.of(first, second, blocked));
+        when(cardLocks.lock(anyCollection())).thenReturn(() -> {
+        });
+        when(transactionCacheService.saveAll(anyList())).thenReturn(new boolean[]{true, false});
+
+        var results = service.createTransactions(List.of(
+                transfer(1L, 2L, 10L),
+                transfer(1L, 4L, 10L),
+                transfer(3L, 2L, 10L),
+                transfer(1L, null, 10L),
+                transfer(2L, 1L, 10L)
+        ), ownerId);
+
+        assertEquals(5, results.size());
+        assertEquals(TransactionResultDto.Status.SUCCESS, results.get(0).getStatus());
+        assertEquals(TransactionResultDto.Status.CARD_OWNER, results.get(1).getStatus());
+        assertEquals(TransactionResultDto.Status.CARD_NOT_ACTIVE, results.get(2).getStatus());
+        assertEquals(TransactionResultDto.Status.INVALID, results.get(3).getStatus());
+        assertEquals(TransactionResultDto.Status.INSUFFICIENT_FUNDS, results.get(4).getStatus());
+        assertEquals(4, results.get(4).getIndex());
+    }
+
+    @Test
+    void createTransactions_rejects_non_positive_and_null_items() {
+        ReflectionTestUtils.setField(service, "maxBatchSize", 10);
+        Long ownerId = 1L;
+        Card first = Card.builder().id(1L).status(Card.Status.ACTIVE).build();
+        Card second = Card.builder().id(2L).status(Card.Status.ACTIVE).build();
+
+        when(cardRepository.findAllByIdInAndUserId(anyCollection(), eq(ownerId))).thenReturn(List.of(first, second));
+        when(cardLocks.lock(anyCollection())).thenReturn(() -> {
+        });
+        when(transactionCacheService.saveAll(anyList())).thenReturn(new boolean[]{true});
+
+        var results = service.createTransactions(Arrays.asList(
+                transfer(1L, 2L, -500L),
+                null,
+                transfer(2L, 1L, 0L),
+                transfer(1L, 2L, 10L)
+        ), ownerId);
+
+        assertEquals(TransactionResultDto.Status.INVALID, results.get(0).getStatus());
+        assertEquals(InvalidAmountException.MSG.formatted(-500L), results.get(0).getMessage());
+        assertEquals(TransactionResultDto.Status.INVALID, results.get(1).getStatus());
+        assertEquals(TransactionResultDto.Status.INVALID, results.get(2).getStatus());
+        assertEquals(TransactionResultDto.Status.SUCCESS, results.get(3).getStatus());
+        verify(transactionCacheService).saveAll(argThat(transactions -> transactions.size() == 1
+                && transactions.get(0).getAmount() == 10L));
+    }
+
+    @Test
+    void scrollAllTransactionHistory_returns_next_cursor_when_more_rows() {
+        var rows = List.of(historyRow(1L), historyRow(2L), historyRow(3L));
+        when(transactionCacheService.findAllAfter(0L, null, 3)).thenReturn(rows);
+
+        var page = service.scrollAllTransactionHistory(null, 2, null);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(2L, CursorUtil.decode(page.getNext()));
+    }
+
+    @Test
+    void scrollTransactionHistoryByUserId_returns_no_cursor_on_last_page() {
+        Long userId = 1L;
+        when(transactionCacheService.findAllByUserIdAfter(userId, 2L, null, 3)).thenReturn(List.of(historyRow(3L)));
+
+        var page = service.scrollTransactionHistoryByUserId(userId, CursorUtil.encode(2L), 2, null);
+
+        assertEquals(1, page.getContent().size());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void scrollAllTransactionHistory_throw_ex_invalid_cursor() {
+        String cursor = "not-a-cursor";
+        Exception exception = assertThrows(InvalidCursorException.class,
+                () -> service.scrollAllTransactionHistory(cursor, 2, null));
+        String expected = InvalidCursorException.MSG.formatted(cursor);
+        String actual = exception.getMessage();
+        assertTrue(actual.contains(expected));
+    }
+
+    private TransactionDto historyRow(Long id) {
+        var dto = transfer(1L, 2L, 10L);
+        dto.setId(id);
+        return dto;
+    }
+
+    private TransactionDto transfer(Long fromCard, Long toCard, Long amount) {
+        var dto = new TransactionDto();
+        dto.setFromCard(fromCard);
+        dto.setToCard(toCard);
+        dto.setAmount(amount);
+        return dto;
+    }
 }
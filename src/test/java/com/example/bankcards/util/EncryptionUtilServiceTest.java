@@ -0,0 +1,90 @@
+package com.example.bankcards.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EncryptionUtilServiceTest {
+
+    private static final String LEGACY_KEY = "d3JtUjlIR1kyeFluNmF6VDUyd1lDbTZPNkFxQUw3RVA=";
+    private static final String AES_KEY = "fIC80OrElR22g/AVdUQ3CDG8u2RwHx8rZi/8KizxO5Y=";
+    private static final String HMAC_KEY = "KA7AVYHwkR4YcIx67l94tyMP7OsqiE80WjeoejdjdaY=";
+    private static final String NUMBER = "4276123456789012";
+
+    @Test
+    void concurrent_round_trips_return_original_numbers() throws Exception {
+        var service = newService();
+        var start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < 64; t++) {
+                var thread = t;
+                Callable<Integer> task = () -> {
+                    start.await();
+                    for (int i = 0; i < 500; i++) {
+                        var number = "%016d".formatted(thread * 1_000_000L + i);
+                        assertEquals(number, service.decrypt(service.encrypt(number)));
+                        assertEquals(number, service.decrypt(service.encryptLegacy(number)));
+                    }
+                    return thread;
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    @Test
+    void encrypt_is_randomized_and_versioned() throws Exception {
+        var service = newService();
+        var first = service.encrypt(NUMBER);
+        var second = service.encrypt(NUMBER);
+
+        assertNotEquals(first, second);
+        assertTrue(first.startsWith(EncryptionUtilService.VERSION_PREFIX));
+        assertFalse(service.isLegacy(first));
+        assertTrue(service.isLegacy(service.encryptLegacy(NUMBER)));
+        assertTrue(first.length() <= 128);
+    }
+
+    @Test
+    void hash_is_deterministic_per_number() throws Exception {
+        var service = newService();
+
+        assertEquals(service.hash(NUMBER), service.hash(NUMBER));
+        assertNotEquals(service.hash(NUMBER), service.hash("4276123456789013"));
+    }
+
+    @Test
+    void decrypt_throw_ex_on_corrupted_input_and_keeps_working() throws Exception {
+        var service = newService();
+        var encrypted = service.encrypt(NUMBER);
+        var prefix = EncryptionUtilService.VERSION_PREFIX.length();
+        var tampered = encrypted.substring(0, prefix)
+                + (encrypted.charAt(prefix) == 'A' ? 'B' : 'A')
+                + encrypted.substring(prefix + 1);
+
+        assertThrows(RuntimeException.class, () -> service.decrypt("AAAAAAAAAA=="));
+        assertThrows(RuntimeException.class, () -> service.decrypt(tampered));
+        assertEquals(NUMBER, service.decrypt(service.encrypt(NUMBER)));
+    }
+
+    private EncryptionUtilService newService() throws Exception {
+        return new EncryptionUtilService(LEGACY_KEY, AES_KEY, HMAC_KEY, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(3), now::get);
+
+    @Test
+    void allows_burst_up_to_capacity() {
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void refills_one_token_per_interval() {
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire();
+        }
+
+        now.addAndGet(Duration.ofMillis(999).toNanos());
+        assertFalse(bucket.tryAcquire());
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void does_not_accumulate_more_than_capacity() {
+        now.addAndGet(Duration.ofHours(1).toNanos());
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+}